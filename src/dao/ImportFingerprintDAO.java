@@ -0,0 +1,61 @@
+package dao;
+
+import util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 匯入來源的指紋紀錄，用於判斷來源檔與各筆資料自上次匯入後是否變更
+ * 每個來源（例如 movie_info.json）保存一筆整檔雜湊（record_key 為 FILE_KEY）與每筆資料的雜湊
+ */
+public class ImportFingerprintDAO {
+    // 整檔雜湊使用的 record_key，不會與資料鍵（電影名稱等）衝突
+    public static final String FILE_KEY = "";
+
+    /**
+     * 取得來源的所有指紋
+     * @return record_key → 雜湊，包含 FILE_KEY 對應的整檔雜湊
+     */
+    public Map<String, String> getFingerprints(String source) {
+        Map<String, String> fingerprints = new HashMap<>();
+        String sql = "SELECT record_key, hash FROM import_fingerprint WHERE source = ?";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, source);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    fingerprints.put(rs.getString("record_key"), rs.getString("hash"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return fingerprints;
+    }
+
+    /**
+     * 在指定的數據庫連接上以新指紋整批取代來源的舊指紋，用於事務控制
+     * 已不在來源檔中的資料鍵會一併移除
+     */
+    public void replaceFingerprintsWithConnection(Connection conn, String source, Map<String, String> fingerprints) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM import_fingerprint WHERE source = ?")) {
+            stmt.setString(1, source);
+            stmt.executeUpdate();
+        }
+        String sql = "INSERT INTO import_fingerprint (source, record_key, hash) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                stmt.setString(1, source);
+                stmt.setString(2, entry.getKey());
+                stmt.setString(3, entry.getValue());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
@@ -8,7 +8,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MemberDAO {
 
@@ -77,6 +80,38 @@ public class MemberDAO {
         return null;
     }
 
+    /**
+     * 以 IN 查詢一次載入多個會員，供批次組裝列表使用
+     * @return 以 uid 為鍵的會員，找不到的 uid 不會出現在結果中
+     */
+    public Map<Integer, Member> getMembersByIds(Collection<Integer> ids) {
+        Map<Integer, Member> result = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += DBUtil.MAX_IN_PARAMS) {
+            List<Integer> chunk = idList.subList(from, Math.min(from + DBUtil.MAX_IN_PARAMS, idList.size()));
+            String sql = "SELECT * FROM member WHERE uid IN (" + DBUtil.placeholders(chunk.size()) + ")";
+            try (Connection conn = DBUtil.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(rs.getInt("uid"), new Member(
+                                rs.getInt("uid"),
+                                rs.getString("email"),
+                                rs.getString("password"),
+                                rs.getString("birth_date")
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return result;
+    }
+
     public List<Member> getAllMembers() {
         List<Member> members = new ArrayList<>();
         String sql = "SELECT * FROM member";
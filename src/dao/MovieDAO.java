@@ -9,7 +9,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MovieDAO {
 
@@ -72,6 +75,39 @@ public class MovieDAO {
         return null;
     }
 
+    /**
+     * 以 IN 查詢一次載入多個電影，供批次組裝列表使用
+     * @return 以 uid 為鍵的電影，找不到的 uid 不會出現在結果中
+     */
+    public Map<Integer, Movie> getMoviesByIds(Collection<Integer> ids) {
+        Map<Integer, Movie> result = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += DBUtil.MAX_IN_PARAMS) {
+            List<Integer> chunk = idList.subList(from, Math.min(from + DBUtil.MAX_IN_PARAMS, idList.size()));
+            String sql = "SELECT * FROM movie WHERE uid IN (" + DBUtil.placeholders(chunk.size()) + ")";
+            try (Connection conn = DBUtil.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(rs.getInt("uid"), new Movie(
+                                rs.getInt("uid"),
+                                rs.getString("name"),
+                                rs.getInt("duration"),
+                                rs.getString("description"),
+                                rs.getString("rating")
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return result;
+    }
+
     /**
      * Retrieves a movie by its exact name.
      * @param name The name of the movie.
@@ -179,6 +215,62 @@ public class MovieDAO {
         return false;
     }
 
+    /**
+     * 取得電影總數
+     */
+    public int countMovies() {
+        String sql = "SELECT COUNT(*) FROM movie";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * 在指定的數據庫連接上批次新增電影，用於事務控制
+     */
+    public void addMoviesWithConnection(Connection conn, List<Movie> movies) throws SQLException {
+        if (movies.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO movie (name, duration, description, rating) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Movie movie : movies) {
+                stmt.setString(1, movie.getName());
+                stmt.setInt(2, movie.getDuration());
+                stmt.setString(3, movie.getDescription());
+                stmt.setString(4, movie.getRating());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * 在指定的數據庫連接上依 uid 批次更新電影，用於事務控制
+     */
+    public void updateMoviesWithConnection(Connection conn, List<Movie> movies) throws SQLException {
+        if (movies.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE movie SET name = ?, duration = ?, description = ?, rating = ? WHERE uid = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Movie movie : movies) {
+                stmt.setString(1, movie.getName());
+                stmt.setInt(2, movie.getDuration());
+                stmt.setString(3, movie.getDescription());
+                stmt.setString(4, movie.getRating());
+                stmt.setInt(5, movie.getUid());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
     // initializeMovies might be better placed in DBUtil or a setup script
     // public void initializeMovies() { ... }
 }
\ No newline at end of file
@@ -1,13 +1,30 @@
 package dao;
 
 import model.Reservation;
+import model.ReservationView;
 import util.DBUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ReservationDAO {
+    // 多列 INSERT 每列 8 個參數，分段以符合 SQLite 的參數上限
+    private static final int MAX_INSERT_ROWS = 100;
+
+    // 熱門查詢，SchemaMigrator.findScans 直接以這些語句檢查執行計畫
+    public static final String SELECT_BY_SHOWTIME_SQL = "SELECT * FROM reservation WHERE theater_uid = ?";
+    public static final String SELECT_CONFIRMED_BY_SHOWTIME_SQL = "SELECT * FROM reservation WHERE theater_uid = ? AND status = 'CONFIRMED'";
+    public static final String SELECT_CONFIRMED_BY_SHOWTIME_AND_SEAT_SQL = "SELECT * FROM reservation WHERE theater_uid = ? AND seat_no = ? AND status = 'CONFIRMED'";
+    public static final String SELECT_BOOKED_SEAT_NOS_SQL = "SELECT seat_no FROM reservation WHERE theater_uid = ? AND status = 'CONFIRMED'";
+    public static final String SELECT_CANCELLED_BY_SHOWTIME_AND_SEAT_SQL = "SELECT uid FROM reservation WHERE seat_no = ? AND theater_uid = ? AND status = 'CANCELLED'";
+    public static final String SELECT_ACTIVE_BY_MEMBER_SQL = "SELECT * FROM reservation WHERE member_uid = ? AND status != 'CANCELLED'";
 
     /**
      * Adds a new reservation to the database.
@@ -17,7 +34,7 @@ public class ReservationDAO {
     public int addReservation(Reservation reservation) {
         String checkSql = "SELECT uid FROM reservation WHERE seat_no = ? AND time = ? AND status = 'CANCELLED'";
         String updateSql = "UPDATE reservation SET member_uid = ?, movie_uid = ?, theater_uid = ?, num_tickets = ?, status = 'CONFIRMED' WHERE uid = ?";
-        String insertSql = "INSERT INTO reservation (member_uid, movie_uid, theater_uid, time, seat_no, num_tickets, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String insertSql = "INSERT INTO reservation (member_uid, movie_uid, theater_uid, time, time_epoch, seat_no, num_tickets, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DBUtil.getConnection()) {
             // 檢查是否存在相同座位和時間的 CANCELLED 記錄
@@ -49,9 +66,10 @@ public class ReservationDAO {
                 // 使用 showtimeUid 而非 theaterUid，但由於資料庫限制，我們將其存入 theater_uid 欄位
                 insertStmt.setInt(3, reservation.getShowtimeUid());
                 insertStmt.setString(4, reservation.getTime());
-                insertStmt.setString(5, reservation.getSeatNo());
-                insertStmt.setInt(6, reservation.getNumTickets());
-                insertStmt.setString(7, reservation.getStatus());
+                insertStmt.setLong(5, reservation.getTimeEpoch());
+                insertStmt.setString(6, reservation.getSeatNo());
+                insertStmt.setInt(7, reservation.getNumTickets());
+                insertStmt.setString(8, reservation.getStatus());
                 insertStmt.executeUpdate();
 
                 try (ResultSet rs = insertStmt.getGeneratedKeys()) {
@@ -71,7 +89,7 @@ public class ReservationDAO {
     }
 
     public Reservation getReservationById(int id) {
-        String sql = "SELECT uid, member_uid, movie_uid, theater_uid, time, seat_no, num_tickets, status FROM reservation WHERE uid = ?";
+        String sql = "SELECT uid, member_uid, movie_uid, theater_uid, time, time_epoch, seat_no, num_tickets, status FROM reservation WHERE uid = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
@@ -89,7 +107,7 @@ public class ReservationDAO {
     public List<Reservation> getAllReservations() {
         List<Reservation> reservations = new ArrayList<>();
         // 修改 SQL 查詢以獲取所有訂單，包括所有欄位，無論狀態如何
-        String sql = "SELECT uid, member_uid, movie_uid, theater_uid, time, seat_no, status, num_tickets FROM reservation ORDER BY time DESC";
+        String sql = "SELECT uid, member_uid, movie_uid, theater_uid, time, time_epoch, seat_no, status, num_tickets FROM reservation ORDER BY time_epoch DESC";
         System.out.println("執行查詢: " + sql);
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -97,18 +115,7 @@ public class ReservationDAO {
             int count = 0;
             while (rs.next()) {
                 count++;
-                Reservation res = new Reservation(
-                    rs.getInt("uid"),
-                    rs.getInt("member_uid"),
-                    rs.getInt("movie_uid"),
-                    rs.getInt("theater_uid"),
-                    rs.getString("time"),
-                    rs.getString("seat_no"),
-                    rs.getString("status"),
-                    rs.getInt("num_tickets")
-                );
-                // 確保設置正確的場次ID
-                res.setShowtimeUid(rs.getInt("theater_uid"));
+                Reservation res = mapResultSetToReservation(rs);
                 reservations.add(res);
                 System.out.println("讀取訂單 #" + count + ": " + res.getUid() + ", 會員ID: " + res.getMemberUid() + ", 狀態: " + res.getStatus());
             }
@@ -120,12 +127,100 @@ public class ReservationDAO {
         return reservations;
     }
 
+    /**
+     * 以單一 JOIN 查詢分頁取得管理員訂單列表，包含會員 email、電影名稱、影廳類型與場次時間
+     * reservation.theater_uid 存的是場次 ID，影廳需再經由 showtime.theater_uid 連接
+     * 以 (time_epoch, uid) 作為游標由新到舊排序，翻頁條件寫成列值比較 (time_epoch, uid) < (?, ?)，
+     * 不過濾狀態時由 time_epoch 索引、過濾狀態時由 (status, time_epoch, uid) 索引直接定位到游標之後，不需 OFFSET
+     * 關鍵字無法使用索引，只能沿索引順序逐列比對，符合的訂單越少需讀取的資料列越多
+     * @param status 只取此狀態的訂單，null 表示全部
+     * @param keyword 只取任一顯示欄位包含此字串的訂單（不分大小寫），null 或空字串表示不過濾
+     * @param after 上一頁的最後一筆，null 表示第一頁
+     * @param pageSize 每頁筆數
+     */
+    public List<ReservationView> getReservationViewsPage(String status, String keyword, ReservationView after, int pageSize) {
+        List<ReservationView> views = new ArrayList<>();
+        boolean byKeyword = keyword != null && !keyword.isEmpty();
+        String sql = reservationViewsPageSql(status != null, byKeyword, after != null);
+        List<Object> params = new ArrayList<>();
+        if (status != null) {
+            params.add(status);
+        }
+        if (byKeyword) {
+            params.add("%" + keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        if (after != null) {
+            params.add(after.getTimeEpoch());
+            params.add(after.getUid());
+        }
+        params.add(pageSize);
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    views.add(new ReservationView(
+                            rs.getInt("uid"),
+                            rs.getInt("member_uid"),
+                            rs.getString("email"),
+                            rs.getInt("movie_uid"),
+                            rs.getString("movie_name"),
+                            rs.getInt("theater_uid"),
+                            rs.getString("theater_type"),
+                            rs.getString("start_time"),
+                            rs.getString("time"),
+                            rs.getLong("time_epoch"),
+                            rs.getString("seat_no"),
+                            rs.getInt("num_tickets"),
+                            rs.getString("status")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("getReservationViewsPage 發生 SQL 錯誤: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return views;
+    }
+
+    /**
+     * 訂單列表分頁的查詢語句，參數依序為狀態、關鍵字、游標 (time_epoch, uid) 與每頁筆數（未使用的條件不佔參數）
+     */
+    public static String reservationViewsPageSql(boolean byStatus, boolean byKeyword, boolean afterKey) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT r.uid, r.member_uid, m.email, r.movie_uid, mv.name AS movie_name, " +
+                "r.theater_uid, t.type AS theater_type, s.start_time, r.time, r.time_epoch, r.seat_no, r.num_tickets, r.status " +
+                "FROM reservation r " +
+                "LEFT JOIN member m ON m.uid = r.member_uid " +
+                "LEFT JOIN movie mv ON mv.uid = r.movie_uid " +
+                "LEFT JOIN showtime s ON s.uid = r.theater_uid " +
+                "LEFT JOIN theater t ON t.uid = s.theater_uid " +
+                "WHERE 1 = 1");
+        if (byStatus) {
+            sql.append(" AND r.status = ?");
+        }
+        if (byKeyword) {
+            // 與表格顯示的欄位一致；SQLite 的 LIKE 對 ASCII 不分大小寫
+            sql.append(" AND (r.uid || ' ' || r.member_uid || ' ' || IFNULL(m.email, '') || ' ' || IFNULL(mv.name, '') || ' ' || " +
+                    "r.theater_uid || ' ' || IFNULL(t.type, '') || ' ' || IFNULL(s.start_time, '') || ' ' || " +
+                    "IFNULL(r.seat_no, '') || ' ' || IFNULL(r.status, '')) LIKE ? ESCAPE '\\'");
+        }
+        if (afterKey) {
+            sql.append(" AND (r.time_epoch, r.uid) < (?, ?)");
+        }
+        sql.append(" ORDER BY r.time_epoch DESC, r.uid DESC LIMIT ?");
+        return sql.toString();
+    }
+
     /**
      * Retrieves all reservations for a specific member.
      */
     public List<Reservation> getReservationsByMemberId(int memberUid) {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT * FROM reservation WHERE member_uid = ? AND status != 'CANCELLED'";
+        String sql = SELECT_ACTIVE_BY_MEMBER_SQL;
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, memberUid);
@@ -200,7 +295,7 @@ public class ReservationDAO {
     public List<Reservation> getReservationsByShowtimeAndSeat(int showtimeUid, String seatNo) {
         List<Reservation> reservations = new ArrayList<>();
         // 修正：使用 theater_uid 欄位存儲 showtimeUid
-        String sql = "SELECT * FROM reservation WHERE theater_uid = ? AND seat_no = ? AND status = 'CONFIRMED'";
+        String sql = SELECT_CONFIRMED_BY_SHOWTIME_AND_SEAT_SQL;
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, showtimeUid);
@@ -225,7 +320,7 @@ public class ReservationDAO {
     public List<Reservation> getReservationsByShowtimeId(int showtimeUid) {
         List<Reservation> reservations = new ArrayList<>();
         // 修正：使用 theater_uid 欄位存儲 showtimeUid
-        String sql = "SELECT * FROM reservation WHERE theater_uid = ? AND status = 'CONFIRMED'";
+        String sql = SELECT_CONFIRMED_BY_SHOWTIME_SQL;
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, showtimeUid);
@@ -243,13 +338,65 @@ public class ReservationDAO {
         return reservations;
     }
 
+    /**
+     * 只讀取指定場次已確認的座位編號，不載入整筆訂票資料
+     * 錯誤時直接拋出，避免呼叫端把空結果當成「沒有訂位」快取起來
+     */
+    public List<String> getBookedSeatNosByShowtime(int showtimeUid) throws SQLException {
+        List<String> seats = new ArrayList<>();
+        String sql = SELECT_BOOKED_SEAT_NOS_SQL;
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, showtimeUid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    seats.add(rs.getString("seat_no"));
+                }
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * 以 GROUP BY 一次統計多個場次的已確認訂票數，由 (theater_uid, status) 索引涵蓋，不需讀取訂票資料列
+     * @return 以場次 ID 為鍵的訂票數，沒有訂票的場次不會出現在結果中
+     */
+    public Map<Integer, Integer> countBookedSeatsByShowtimes(Collection<Integer> showtimeUids) throws SQLException {
+        Map<Integer, Integer> counts = new HashMap<>();
+        List<Integer> uids = new ArrayList<>(showtimeUids);
+        for (int from = 0; from < uids.size(); from += DBUtil.MAX_IN_PARAMS) {
+            List<Integer> chunk = uids.subList(from, Math.min(from + DBUtil.MAX_IN_PARAMS, uids.size()));
+            String sql = countBookedSeatsSql(chunk.size());
+            try (Connection conn = DBUtil.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        counts.put(rs.getInt("theater_uid"), rs.getInt("booked"));
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 統計 count 個場次已確認訂票數的查詢語句
+     */
+    public static String countBookedSeatsSql(int count) {
+        return "SELECT theater_uid, COUNT(*) AS booked FROM reservation WHERE status = 'CONFIRMED' AND theater_uid IN ("
+                + DBUtil.placeholders(count) + ") GROUP BY theater_uid";
+    }
+
     /**
      * 獲取指定場次和座位的訂票，並使用 FOR UPDATE 鎖定相關行，防止並發問題
      * 此方法必須在一個事務中調用
      */
     public List<Reservation> getLockedReservationsByShowtimeAndSeat(Connection conn, int showtimeUid, String seatNo) throws SQLException {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT * FROM reservation WHERE theater_uid = ? AND seat_no = ? AND status = 'CONFIRMED'";  // SQLite 不支援 FOR UPDATE
+        String sql = SELECT_CONFIRMED_BY_SHOWTIME_AND_SEAT_SQL;  // SQLite 不支援 FOR UPDATE
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, showtimeUid);
             stmt.setString(2, seatNo);
@@ -269,9 +416,9 @@ public class ReservationDAO {
      * 在指定的數據庫連接上添加一個新的訂票，用於事務控制
      */
     public int addReservationWithConnection(Connection conn, Reservation reservation) throws SQLException {
-        String checkSql = "SELECT uid FROM reservation WHERE seat_no = ? AND theater_uid = ? AND status = 'CANCELLED'";
+        String checkSql = SELECT_CANCELLED_BY_SHOWTIME_AND_SEAT_SQL;
         String updateSql = "UPDATE reservation SET member_uid = ?, movie_uid = ?, theater_uid = ?, num_tickets = ?, status = 'CONFIRMED' WHERE uid = ?";
-        String insertSql = "INSERT INTO reservation (member_uid, movie_uid, theater_uid, time, seat_no, num_tickets, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String insertSql = "INSERT INTO reservation (member_uid, movie_uid, theater_uid, time, time_epoch, seat_no, num_tickets, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
         // 檢查是否存在相同座位和時間的 CANCELLED 記錄
         try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
@@ -300,9 +447,10 @@ public class ReservationDAO {
             insertStmt.setInt(2, reservation.getMovieUid());
             insertStmt.setInt(3, reservation.getShowtimeUid());
             insertStmt.setString(4, reservation.getTime());
-            insertStmt.setString(5, reservation.getSeatNo());
-            insertStmt.setInt(6, reservation.getNumTickets());
-            insertStmt.setString(7, reservation.getStatus());
+            insertStmt.setLong(5, reservation.getTimeEpoch());
+            insertStmt.setString(6, reservation.getSeatNo());
+            insertStmt.setInt(7, reservation.getNumTickets());
+            insertStmt.setString(8, reservation.getStatus());
             insertStmt.executeUpdate();
 
             try (ResultSet rs = insertStmt.getGeneratedKeys()) {
@@ -315,6 +463,138 @@ public class ReservationDAO {
         return -1;
     }
 
+    /**
+     * 一次查出指定場次中已被確認預訂的座位，取代逐一座位查詢
+     * 此方法必須在一個事務中調用
+     */
+    public Set<String> getConfirmedSeatNosWithConnection(Connection conn, int showtimeUid, Collection<String> seatNos) throws SQLException {
+        Set<String> confirmed = new HashSet<>();
+        List<String> seats = new ArrayList<>(seatNos);
+        for (int from = 0; from < seats.size(); from += DBUtil.MAX_IN_PARAMS) {
+            List<String> chunk = seats.subList(from, Math.min(from + DBUtil.MAX_IN_PARAMS, seats.size()));
+            String sql = "SELECT seat_no FROM reservation WHERE theater_uid = ? AND status = 'CONFIRMED' AND seat_no IN (" + DBUtil.placeholders(chunk.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, showtimeUid);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 2, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        confirmed.add(rs.getString("seat_no"));
+                    }
+                }
+            }
+        }
+        return confirmed;
+    }
+
+    /**
+     * 在指定的數據庫連接上批次新增同一場次的多筆訂票，用於事務控制
+     * 已取消的同座位記錄以一次查詢找出並批次更新重用，其餘以多列 INSERT 寫入
+     * @return 與傳入順序對應的訂票ID
+     */
+    public List<Integer> addReservationsWithConnection(Connection conn, List<Reservation> reservations) throws SQLException {
+        if (reservations.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int showtimeUid = reservations.get(0).getShowtimeUid();
+        List<String> seatNos = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            if (reservation.getShowtimeUid() != showtimeUid) {
+                throw new IllegalArgumentException("批次訂票必須屬於同一場次");
+            }
+            seatNos.add(reservation.getSeatNo());
+        }
+
+        // 1. 一次找出可重用的已取消記錄（同座位若有多筆只取一筆）
+        Map<String, Integer> cancelledBySeat = new HashMap<>();
+        for (int from = 0; from < seatNos.size(); from += DBUtil.MAX_IN_PARAMS) {
+            List<String> chunk = seatNos.subList(from, Math.min(from + DBUtil.MAX_IN_PARAMS, seatNos.size()));
+            String sql = "SELECT uid, seat_no FROM reservation WHERE theater_uid = ? AND status = 'CANCELLED' AND seat_no IN (" + DBUtil.placeholders(chunk.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, showtimeUid);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 2, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        cancelledBySeat.putIfAbsent(rs.getString("seat_no"), rs.getInt("uid"));
+                    }
+                }
+            }
+        }
+
+        Integer[] ids = new Integer[reservations.size()];
+        List<Integer> toInsert = new ArrayList<>();
+
+        // 2. 批次更新重用的記錄
+        String updateSql = "UPDATE reservation SET member_uid = ?, movie_uid = ?, theater_uid = ?, num_tickets = ?, status = 'CONFIRMED' WHERE uid = ?";
+        try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+            boolean hasUpdates = false;
+            for (int i = 0; i < reservations.size(); i++) {
+                Reservation reservation = reservations.get(i);
+                Integer existingId = cancelledBySeat.remove(reservation.getSeatNo());
+                if (existingId == null) {
+                    toInsert.add(i);
+                    continue;
+                }
+                updateStmt.setInt(1, reservation.getMemberUid());
+                updateStmt.setInt(2, reservation.getMovieUid());
+                updateStmt.setInt(3, reservation.getShowtimeUid());
+                updateStmt.setInt(4, reservation.getNumTickets());
+                updateStmt.setInt(5, existingId);
+                updateStmt.addBatch();
+                ids[i] = existingId;
+                hasUpdates = true;
+            }
+            if (hasUpdates) {
+                updateStmt.executeBatch();
+            }
+        }
+
+        // 3. 其餘座位以多列 INSERT 寫入；同一事務內 AUTOINCREMENT 產生的 uid 連續，
+        //    因此可由 last_insert_rowid() 回推整批的 ID
+        for (int from = 0; from < toInsert.size(); from += MAX_INSERT_ROWS) {
+            List<Integer> chunk = toInsert.subList(from, Math.min(from + MAX_INSERT_ROWS, toInsert.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO reservation (member_uid, movie_uid, theater_uid, time, time_epoch, seat_no, num_tickets, status) VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?)");
+            }
+            try (PreparedStatement insertStmt = conn.prepareStatement(sql.toString())) {
+                int param = 1;
+                for (int index : chunk) {
+                    Reservation reservation = reservations.get(index);
+                    insertStmt.setInt(param++, reservation.getMemberUid());
+                    insertStmt.setInt(param++, reservation.getMovieUid());
+                    insertStmt.setInt(param++, reservation.getShowtimeUid());
+                    insertStmt.setString(param++, reservation.getTime());
+                    insertStmt.setLong(param++, reservation.getTimeEpoch());
+                    insertStmt.setString(param++, reservation.getSeatNo());
+                    insertStmt.setInt(param++, reservation.getNumTickets());
+                    insertStmt.setString(param++, reservation.getStatus());
+                }
+                insertStmt.executeUpdate();
+            }
+            int lastId = lastInsertRowId(conn);
+            int firstId = lastId - chunk.size() + 1;
+            for (int i = 0; i < chunk.size(); i++) {
+                ids[chunk.get(i)] = firstId + i;
+            }
+        }
+
+        return new ArrayList<>(Arrays.asList(ids));
+    }
+
+    private int lastInsertRowId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        }
+        throw new SQLException("無法取得新增訂票的ID");
+    }
+
     /**
      * 獲取指定 ID 的訂票，並使用 FOR UPDATE 鎖定相關行，防止並發問題
      * 此方法必須在一個事務中調用
@@ -338,7 +618,7 @@ public class ReservationDAO {
     public List<Reservation> getReservationsByShowtime(int showtimeUid) {
         List<Reservation> reservations = new ArrayList<>();
         // 由於資料庫結構限制，使用 theater_uid 欄位存儲 showtimeUid
-        String sql = "SELECT * FROM reservation WHERE theater_uid = ?";
+        String sql = SELECT_BY_SHOWTIME_SQL;
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, showtimeUid);
@@ -370,6 +650,10 @@ public class ReservationDAO {
         );
         // 將 theater_uid 欄位值設為 showtimeUid
         res.setShowtimeUid(rs.getInt("theater_uid"));
+        long timeEpoch = rs.getLong("time_epoch");
+        if (!rs.wasNull()) {
+            res.setTimeEpoch(timeEpoch);
+        }
         return res;
     }
 }
\ No newline at end of file
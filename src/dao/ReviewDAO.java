@@ -0,0 +1,45 @@
+package dao;
+
+import model.Review;
+import util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReviewDAO {
+
+    // 分頁查詢，SchemaMigrator.findScans 直接以此語句檢查執行計畫
+    public static final String SELECT_PAGE_BY_MOVIE_SQL = "SELECT id, movie_id, user_email, review_text FROM reviews WHERE movie_id = ? AND id > ? ORDER BY id ASC LIMIT ?";
+
+    /**
+     * 分頁取得電影評論，依 id 由舊到新排序
+     * 以上一頁最後一筆的 id 作為游標，搭配 (movie_id, id) 索引直接定位，不需 OFFSET 略過前面的資料列
+     * @param afterId 上一頁最後一筆的 id，第一頁傳入 0
+     * @param pageSize 每頁筆數
+     */
+    public List<Review> getReviewsPage(int movieId, int afterId, int pageSize) throws SQLException {
+        List<Review> reviews = new ArrayList<>();
+        String sql = SELECT_PAGE_BY_MOVIE_SQL;
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, movieId);
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, pageSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reviews.add(new Review(
+                            rs.getInt("id"),
+                            rs.getInt("movie_id"),
+                            rs.getString("user_email"),
+                            rs.getString("review_text")
+                    ));
+                }
+            }
+        }
+        return reviews;
+    }
+}
@@ -1,8 +1,9 @@
 package dao;
 
+import model.AvailabilityDrift;
 import model.Showtime;
-import model.Theater; // Import Theater
 import util.DBUtil;
+import util.TimeUtil;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -10,11 +11,21 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement; // Import Statement
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ShowtimeDAO {
 
-    private final TheaterDAO theaterDAO = new TheaterDAO(); // Instantiate TheaterDAO
+    // 熱門查詢，SchemaMigrator.findScans 直接以這些語句檢查執行計畫
+    public static final String SELECT_BY_MOVIE_SQL = "SELECT uid, movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats FROM showtime WHERE movie_uid = ? ORDER BY start_time";
+    public static final String SELECT_BY_THEATER_SQL = "SELECT uid, movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats FROM showtime WHERE theater_uid = ? ORDER BY start_time";
+    public static final String COUNT_RUNNING_IN_THEATER_SQL = "SELECT COUNT(*) FROM showtime WHERE theater_uid = ? AND start_epoch <= ? AND end_epoch >= ?";
+
+    private final ShowtimeIntervalIndex intervalIndex = ShowtimeIntervalIndex.getInstance();
 
     /**
      * 檢查影廳或電影時間衝突，排除指定場次（可為 null）
@@ -25,37 +36,52 @@ public class ShowtimeDAO {
     }
 
     // 檢查同影廳時間衝突
-    private boolean hasTheaterConflict(Integer excludeUid,int theaterUid,String newStart,String newEnd) {
-        java.time.format.DateTimeFormatter fmt = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        java.time.LocalDateTime ns = java.time.LocalDateTime.parse(newStart, fmt);
-        java.time.LocalDateTime ne = java.time.LocalDateTime.parse(newEnd, fmt);
-        List<Showtime> existing = getShowtimesByTheaterId(theaterUid);
-        for (Showtime st : existing) {
-            if (excludeUid != null && st.getUid() == excludeUid) continue;
-            java.time.LocalDateTime es = java.time.LocalDateTime.parse(st.getStartTime(), fmt);
-            java.time.LocalDateTime ee = java.time.LocalDateTime.parse(st.getEndTime(), fmt);
-            if (ns.isBefore(ee) && ne.isAfter(es)) {
-                return true;
-            }
-        }
-        return false;
+    private boolean hasTheaterConflict(Integer excludeUid,int theaterUid,String newStart,String newEnd) throws SQLException {
+        return intervalIndex.hasTheaterConflict(excludeUid, theaterUid,
+                TimeUtil.parseShowtimeEpoch(newStart) / 60, TimeUtil.parseShowtimeEpoch(newEnd) / 60, this::loadAllForIndex);
     }
 
     // 檢查同電影時間衝突（跨所有影廳）
-    private boolean hasMovieConflict(Integer excludeUid,int movieUid,String newStart,String newEnd) {
-        java.time.format.DateTimeFormatter fmt = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        java.time.LocalDateTime ns = java.time.LocalDateTime.parse(newStart, fmt);
-        java.time.LocalDateTime ne = java.time.LocalDateTime.parse(newEnd, fmt);
-        List<Showtime> existing = getShowtimesByMovieId(movieUid);
-        for (Showtime st : existing) {
-            if (excludeUid != null && st.getUid() == excludeUid) continue;
-            java.time.LocalDateTime es = java.time.LocalDateTime.parse(st.getStartTime(), fmt);
-            java.time.LocalDateTime ee = java.time.LocalDateTime.parse(st.getEndTime(), fmt);
-            if (ns.isBefore(ee) && ne.isAfter(es)) {
-                return true;
+    private boolean hasMovieConflict(Integer excludeUid,int movieUid,String newStart,String newEnd) throws SQLException {
+        return intervalIndex.hasMovieConflict(excludeUid, movieUid,
+                TimeUtil.parseShowtimeEpoch(newStart) / 60, TimeUtil.parseShowtimeEpoch(newEnd) / 60, this::loadAllForIndex);
+    }
+
+    /**
+     * 影廳在 [startEpoch, endEpoch)（epoch 秒）是否已有場次，供批次排程使用
+     */
+    public boolean hasTheaterConflictAt(int theaterUid, long startEpoch, long endEpoch) throws SQLException {
+        return intervalIndex.hasTheaterConflict(null, theaterUid, startEpoch / 60, endEpoch / 60, this::loadAllForIndex);
+    }
+
+    /**
+     * 電影在 [startEpoch, endEpoch)（epoch 秒）是否已有場次，供批次排程使用
+     */
+    public boolean hasMovieConflictAt(int movieUid, long startEpoch, long endEpoch) throws SQLException {
+        return intervalIndex.hasMovieConflict(null, movieUid, startEpoch / 60, endEpoch / 60, this::loadAllForIndex);
+    }
+
+    /**
+     * 載入所有場次以建立時段索引，錯誤時直接拋出
+     */
+    private List<Showtime> loadAllForIndex() throws SQLException {
+        List<Showtime> showtimes = new ArrayList<>();
+        String sql = "SELECT uid, movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats FROM showtime";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                showtimes.add(mapResultSetToShowtime(rs));
             }
         }
-        return false;
+        return showtimes;
+    }
+
+    /**
+     * 捨棄場次時段索引，直接以 SQL 修改 showtime 資料表後需呼叫
+     */
+    public static void invalidateScheduleIndex() {
+        ShowtimeIntervalIndex.getInstance().invalidate();
     }
 
     /**
@@ -64,14 +90,14 @@ public class ShowtimeDAO {
      * @return 如果當前時間有場次則返回 true，否則返回 false
      */
     public boolean isTheaterInUse(int theaterUid) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM showtime WHERE theater_uid = ? AND start_time <= ? AND end_time >= ?";
+        // 以 epoch 欄位做索引範圍查詢，不需格式化或比較時間字串
+        String sql = COUNT_RUNNING_IN_THEATER_SQL;
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            String now = java.time.LocalDateTime.now()
-                            .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+            long now = TimeUtil.nowEpoch();
             stmt.setInt(1, theaterUid);
-            stmt.setString(2, now);
-            stmt.setString(3, now);
+            stmt.setLong(2, now);
+            stmt.setLong(3, now);
             try (ResultSet rs = stmt.executeQuery()) {
                 return rs.next() && rs.getInt(1) > 0;
             }
@@ -79,7 +105,8 @@ public class ShowtimeDAO {
     }
 
     /**
-     * Adds a new showtime to the database, initializing available seats based on the theater.
+     * Adds a new showtime to the database.
+     * 可用座位取自 showtime.getAvailableSeats()，呼叫端需先依影廳座位數設定
      * @param showtime The Showtime object to add (UID can be 0).
      * @return The generated UID of the newly added showtime, or -1 on failure.
      */
@@ -94,21 +121,18 @@ public class ShowtimeDAO {
             e.printStackTrace();
             return -1;
         }
-        Theater theater = theaterDAO.getTheaterById(showtime.getTheaterUid());
-        if (theater == null) {
-            System.err.println("Error adding showtime: Theater with UID " + showtime.getTheaterUid() + " not found.");
-            return -1; // Indicate failure
-        }
-        int initialAvailableSeats = theater.getTotalSeats();
+        int initialAvailableSeats = showtime.getAvailableSeats();
 
-        String sql = "INSERT INTO showtime (movie_uid, theater_uid, start_time, end_time, available_seats) VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO showtime (movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats) VALUES (?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) { // Add RETURN_GENERATED_KEYS
             stmt.setInt(1, showtime.getMovieUid());
             stmt.setInt(2, showtime.getTheaterUid());
             stmt.setString(3, showtime.getStartTime());
             stmt.setString(4, showtime.getEndTime());
-            stmt.setInt(5, initialAvailableSeats);
+            stmt.setLong(5, showtime.getStartEpoch());
+            stmt.setLong(6, showtime.getEndEpoch());
+            stmt.setInt(7, initialAvailableSeats);
             int affectedRows = stmt.executeUpdate();
 
             if (affectedRows == 0) {
@@ -118,7 +142,12 @@ public class ShowtimeDAO {
             // Retrieve the generated key
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1); // Return generated UID
+                    int uid = generatedKeys.getInt(1);
+                    Showtime created = new Showtime(uid, showtime.getMovieUid(), showtime.getTheaterUid(),
+                            showtime.getStartTime(), showtime.getEndTime(), initialAvailableSeats);
+                    created.setEpochs(showtime.getStartEpoch(), showtime.getEndEpoch());
+                    intervalIndex.put(created);
+                    return uid; // Return generated UID
                 } else {
                     System.err.println("Failed to retrieve generated key for new showtime.");
                     return -1; // Failed to get generated key
@@ -131,8 +160,65 @@ public class ShowtimeDAO {
         }
     }
 
+    /**
+     * 在單一事務中批次新增多個場次，任何一筆失敗即整批回滾
+     * 不做衝突檢查，呼叫端需事先驗證；可用座位取自各場次的 getAvailableSeats()
+     * @return 與傳入順序對應的場次ID
+     */
+    public List<Integer> addShowtimes(List<Showtime> showtimes) throws SQLException {
+        List<Integer> ids = new ArrayList<>(showtimes.size());
+        if (showtimes.isEmpty()) {
+            return ids;
+        }
+        String sql = "INSERT INTO showtime (movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Showtime showtime : showtimes) {
+                    stmt.setInt(1, showtime.getMovieUid());
+                    stmt.setInt(2, showtime.getTheaterUid());
+                    stmt.setString(3, showtime.getStartTime());
+                    stmt.setString(4, showtime.getEndTime());
+                    stmt.setLong(5, showtime.getStartEpoch());
+                    stmt.setLong(6, showtime.getEndEpoch());
+                    stmt.setInt(7, showtime.getAvailableSeats());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                // 同一事務內 AUTOINCREMENT 產生的 uid 連續，由最後一筆回推整批的 ID
+                int lastId;
+                try (Statement idStmt = conn.createStatement();
+                     ResultSet rs = idStmt.executeQuery("SELECT last_insert_rowid()")) {
+                    if (!rs.next()) {
+                        throw new SQLException("Failed to retrieve generated keys for new showtimes.");
+                    }
+                    lastId = rs.getInt(1);
+                }
+                conn.commit();
+                int firstId = lastId - showtimes.size() + 1;
+                for (int i = 0; i < showtimes.size(); i++) {
+                    ids.add(firstId + i);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        for (int i = 0; i < showtimes.size(); i++) {
+            Showtime source = showtimes.get(i);
+            Showtime created = new Showtime(ids.get(i), source.getMovieUid(), source.getTheaterUid(),
+                    source.getStartTime(), source.getEndTime(), source.getAvailableSeats());
+            created.setEpochs(source.getStartEpoch(), source.getEndEpoch());
+            intervalIndex.put(created);
+        }
+        return ids;
+    }
+
     public Showtime getShowtimeById(int id) {
-        String sql = "SELECT uid, movie_uid, theater_uid, start_time, end_time, available_seats FROM showtime WHERE uid = ?";
+        String sql = "SELECT uid, movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats FROM showtime WHERE uid = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
@@ -147,9 +233,37 @@ public class ShowtimeDAO {
         return null;
     }
 
+    /**
+     * 以 IN 查詢一次載入多個場次，供批次組裝列表使用
+     * @return 以 uid 為鍵的場次，找不到的 uid 不會出現在結果中
+     */
+    public Map<Integer, Showtime> getShowtimesByIds(Collection<Integer> ids) {
+        Map<Integer, Showtime> result = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += DBUtil.MAX_IN_PARAMS) {
+            List<Integer> chunk = idList.subList(from, Math.min(from + DBUtil.MAX_IN_PARAMS, idList.size()));
+            String sql = "SELECT uid, movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats FROM showtime WHERE uid IN (" + DBUtil.placeholders(chunk.size()) + ")";
+            try (Connection conn = DBUtil.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Showtime showtime = mapResultSetToShowtime(rs);
+                        result.put(showtime.getUid(), showtime);
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return result;
+    }
+
     public List<Showtime> getAllShowtimes() {
         List<Showtime> showtimes = new ArrayList<>();
-        String sql = "SELECT uid, movie_uid, theater_uid, start_time, end_time, available_seats FROM showtime ORDER BY start_time"; // Order by start_time
+        String sql = "SELECT uid, movie_uid, theater_uid, start_time, end_time, start_epoch, end_epoch, available_seats FROM showtime ORDER BY start_time"; // Order by start_time
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
@@ -164,7 +278,7 @@ public class ShowtimeDAO {
 
     public List<Showtime> getShowtimesByMovieId(int movieId) {
         List<Showtime> showtimes = new ArrayList<>();
-        String query = "SELECT uid, movie_uid, theater_uid, start_time, end_time, available_seats FROM showtime WHERE movie_uid = ? ORDER BY start_time"; // Order by start_time
+        String query = SELECT_BY_MOVIE_SQL; // Order by start_time
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, movieId);
@@ -185,7 +299,7 @@ public class ShowtimeDAO {
      */
     public List<Showtime> getShowtimesByTheaterId(int theaterId) {
         List<Showtime> showtimes = new ArrayList<>();
-        String query = "SELECT uid, movie_uid, theater_uid, start_time, end_time, available_seats FROM showtime WHERE theater_uid = ? ORDER BY start_time";
+        String query = SELECT_BY_THEATER_SQL;
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, theaterId);
@@ -216,16 +330,21 @@ public class ShowtimeDAO {
             e.printStackTrace();
             return false;
         }
-        String sql = "UPDATE showtime SET movie_uid = ?, theater_uid = ?, start_time = ?, end_time = ?, available_seats = ? WHERE uid = ?";
+        String sql = "UPDATE showtime SET movie_uid = ?, theater_uid = ?, start_time = ?, end_time = ?, start_epoch = ?, end_epoch = ?, available_seats = ? WHERE uid = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, showtime.getMovieUid());
             stmt.setInt(2, showtime.getTheaterUid());
             stmt.setString(3, showtime.getStartTime());
             stmt.setString(4, showtime.getEndTime());
-            stmt.setInt(5, showtime.getAvailableSeats());
-            stmt.setInt(6, showtime.getUid());
+            stmt.setLong(5, showtime.getStartEpoch());
+            stmt.setLong(6, showtime.getEndEpoch());
+            stmt.setInt(7, showtime.getAvailableSeats());
+            stmt.setInt(8, showtime.getUid());
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                intervalIndex.put(showtime);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -245,6 +364,9 @@ public class ShowtimeDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                intervalIndex.remove(id);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -328,9 +450,74 @@ public class ShowtimeDAO {
         }
     }
 
+    /**
+     * 依訂票紀錄計算場次應有的可用座位數（影廳座位數減去已確認的票數），找出與記錄值不一致的場次
+     * 此方法必須在一個事務中調用
+     * @return 可用座位數不一致的場次；影廳已不存在的場次不檢查
+     */
+    public List<AvailabilityDrift> findAvailableSeatDriftWithConnection(Connection conn, Collection<Integer> showtimeUids) throws SQLException {
+        List<AvailabilityDrift> drift = new ArrayList<>();
+        List<Integer> uids = new ArrayList<>(showtimeUids);
+        // 查詢中有兩個相同的 IN 清單，每段只放一半的參數
+        int chunkSize = DBUtil.MAX_IN_PARAMS / 2;
+        for (int from = 0; from < uids.size(); from += chunkSize) {
+            List<Integer> chunk = uids.subList(from, Math.min(from + chunkSize, uids.size()));
+            String sql = "SELECT s.uid, s.available_seats, t.total_seats - COALESCE(b.booked, 0) AS expected " +
+                         "FROM showtime s JOIN theater t ON t.uid = s.theater_uid " +
+                         "LEFT JOIN (SELECT theater_uid, SUM(num_tickets) AS booked FROM reservation " +
+                         "WHERE status = 'CONFIRMED' AND theater_uid IN (" + DBUtil.placeholders(chunk.size()) + ") GROUP BY theater_uid) b " +
+                         "ON b.theater_uid = s.uid " +
+                         "WHERE s.uid IN (" + DBUtil.placeholders(chunk.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                    stmt.setInt(chunk.size() + i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int recorded = rs.getInt("available_seats");
+                        int expected = rs.getInt("expected");
+                        if (recorded != expected) {
+                            drift.add(new AvailabilityDrift(rs.getInt("uid"), recorded, expected));
+                        }
+                    }
+                }
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * 將不一致的可用座位數修正為應有值；只在記錄值仍與查詢時相同時更新，期間被訂票或取消改變的場次不會覆寫
+     * 此方法必須在一個事務中調用
+     * @return 成功修正的場次ID
+     */
+    public Set<Integer> correctAvailableSeatsWithConnection(Connection conn, List<AvailabilityDrift> drift) throws SQLException {
+        Set<Integer> corrected = new HashSet<>();
+        if (drift.isEmpty()) {
+            return corrected;
+        }
+        String sql = "UPDATE showtime SET available_seats = ? WHERE uid = ? AND available_seats = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (AvailabilityDrift d : drift) {
+                stmt.setInt(1, d.getExpected());
+                stmt.setInt(2, d.getShowtimeUid());
+                stmt.setInt(3, d.getRecorded());
+                stmt.addBatch();
+            }
+            int[] results = stmt.executeBatch();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] > 0) {
+                    corrected.add(drift.get(i).getShowtimeUid());
+                }
+            }
+        }
+        return corrected;
+    }
+
     // Helper method to map ResultSet to Showtime object
     private Showtime mapResultSetToShowtime(ResultSet rs) throws SQLException {
-        return new Showtime(
+        Showtime showtime = new Showtime(
                 rs.getInt("uid"),
                 rs.getInt("movie_uid"),
                 rs.getInt("theater_uid"),
@@ -338,5 +525,10 @@ public class ShowtimeDAO {
                 rs.getString("end_time"),
                 rs.getInt("available_seats")
         );
+        long startEpoch = rs.getLong("start_epoch");
+        if (!rs.wasNull()) {
+            showtime.setEpochs(startEpoch, rs.getLong("end_epoch"));
+        }
+        return showtime;
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package dao;
+
+import model.Showtime;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 場次時段的記憶體索引，依影廳與電影分別以開始時間（epoch 分鐘）排序
+ * 衝突檢查只需查看開始時間落在 [新開始 - 最長片長, 新結束) 的場次，不必載入整個影廳或電影的排程
+ * 首次使用時從資料庫載入，之後由 ShowtimeDAO 的新增 / 更新 / 刪除同步維護
+ */
+class ShowtimeIntervalIndex {
+    private static final ShowtimeIntervalIndex INSTANCE = new ShowtimeIntervalIndex();
+
+    private final Map<Integer, Timeline> byTheater = new HashMap<>();
+    private final Map<Integer, Timeline> byMovie = new HashMap<>();
+    private final Map<Integer, Interval> byUid = new HashMap<>();
+    private boolean loaded;
+
+    private ShowtimeIntervalIndex() {
+    }
+
+    static ShowtimeIntervalIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 影廳在 [start, end) 是否已有其他場次
+     */
+    synchronized boolean hasTheaterConflict(Integer excludeUid, int theaterUid, long start, long end, Loader loader) throws SQLException {
+        ensureLoaded(loader);
+        Timeline timeline = byTheater.get(theaterUid);
+        return timeline != null && timeline.overlaps(start, end, excludeUid);
+    }
+
+    /**
+     * 電影在 [start, end) 是否已有其他場次（跨所有影廳）
+     */
+    synchronized boolean hasMovieConflict(Integer excludeUid, int movieUid, long start, long end, Loader loader) throws SQLException {
+        ensureLoaded(loader);
+        Timeline timeline = byMovie.get(movieUid);
+        return timeline != null && timeline.overlaps(start, end, excludeUid);
+    }
+
+    /**
+     * 新增或更新場次的時段；索引尚未載入時略過，載入時會從資料庫讀到此筆
+     */
+    synchronized void put(Showtime showtime) {
+        if (loaded) {
+            remove(showtime.getUid());
+            add(showtime);
+        }
+    }
+
+    private void add(Showtime showtime) {
+        Interval interval = new Interval(showtime.getUid(), showtime.getTheaterUid(), showtime.getMovieUid(),
+                showtime.getStartEpoch() / 60, showtime.getEndEpoch() / 60);
+        byUid.put(interval.uid, interval);
+        byTheater.computeIfAbsent(interval.theaterUid, k -> new Timeline()).add(interval);
+        byMovie.computeIfAbsent(interval.movieUid, k -> new Timeline()).add(interval);
+    }
+
+    synchronized void remove(int showtimeUid) {
+        Interval interval = byUid.remove(showtimeUid);
+        if (interval != null) {
+            byTheater.get(interval.theaterUid).remove(interval);
+            byMovie.get(interval.movieUid).remove(interval);
+        }
+    }
+
+    /**
+     * 丟棄索引，下次查詢時重新從資料庫載入（資料表被直接修改時使用）
+     */
+    synchronized void invalidate() {
+        byTheater.clear();
+        byMovie.clear();
+        byUid.clear();
+        loaded = false;
+    }
+
+    private void ensureLoaded(Loader loader) throws SQLException {
+        if (loaded) {
+            return;
+        }
+        // 載入失敗時維持未載入狀態，避免以不完整的排程判斷衝突
+        List<Showtime> showtimes = loader.load();
+        byTheater.clear();
+        byMovie.clear();
+        byUid.clear();
+        for (Showtime showtime : showtimes) {
+            add(showtime);
+        }
+        loaded = true;
+    }
+
+    /**
+     * 從資料庫讀取所有場次，錯誤時拋出而非返回空列表
+     */
+    interface Loader {
+        List<Showtime> load() throws SQLException;
+    }
+
+    /**
+     * 單一影廳或電影的排程，依開始時間排序
+     */
+    private static class Timeline {
+        private final NavigableMap<Long, List<Interval>> byStart = new TreeMap<>();
+        // 曾加入的最長時段，移除時不回縮，只會讓查詢範圍略大而不影響正確性
+        private long maxDuration;
+
+        void add(Interval interval) {
+            byStart.computeIfAbsent(interval.start, k -> new ArrayList<>(1)).add(interval);
+            maxDuration = Math.max(maxDuration, interval.end - interval.start);
+        }
+
+        void remove(Interval interval) {
+            List<Interval> sameStart = byStart.get(interval.start);
+            if (sameStart != null) {
+                sameStart.remove(interval);
+                if (sameStart.isEmpty()) {
+                    byStart.remove(interval.start);
+                }
+            }
+        }
+
+        boolean overlaps(long start, long end, Integer excludeUid) {
+            // 與 [start, end) 重疊的場次，其開始時間必定落在 (start - maxDuration, end)
+            for (List<Interval> sameStart : byStart.subMap(start - maxDuration, false, end, false).values()) {
+                for (Interval interval : sameStart) {
+                    if (excludeUid != null && interval.uid == excludeUid) continue;
+                    if (start < interval.end && end > interval.start) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Interval {
+        private final int uid;
+        private final int theaterUid;
+        private final int movieUid;
+        private final long start;
+        private final long end;
+
+        Interval(int uid, int theaterUid, int movieUid, long start, long end) {
+            this.uid = uid;
+            this.theaterUid = theaterUid;
+            this.movieUid = movieUid;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
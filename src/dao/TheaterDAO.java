@@ -9,7 +9,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TheaterDAO {
 
@@ -58,6 +61,37 @@ public class TheaterDAO {
         return null;
     }
     
+    /**
+     * 以 IN 查詢一次載入多個影廳，供批次組裝列表使用
+     * @return 以 uid 為鍵的影廳，找不到的 uid 不會出現在結果中
+     */
+    public Map<Integer, Theater> getTheatersByIds(Collection<Integer> ids) {
+        Map<Integer, Theater> result = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += DBUtil.MAX_IN_PARAMS) {
+            List<Integer> chunk = idList.subList(from, Math.min(from + DBUtil.MAX_IN_PARAMS, idList.size()));
+            String sql = "SELECT * FROM theater WHERE uid IN (" + DBUtil.placeholders(chunk.size()) + ")";
+            try (Connection conn = DBUtil.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(rs.getInt("uid"), new Theater(
+                                rs.getInt("uid"),
+                                rs.getString("type"),
+                                rs.getInt("total_seats")
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return result;
+    }
+
     public Theater getTheaterByType(String type) {
         String sql = "SELECT * FROM theater WHERE type = ?";
         try (Connection conn = DBUtil.getConnection();
@@ -138,4 +172,24 @@ public class TheaterDAO {
             return false;
         }
     }
+
+    /**
+     * 在指定的數據庫連接上依影廳類型批次新增或更新座位數，用於事務控制
+     * type 有唯一約束，已存在的影廳以 ON CONFLICT 更新，uid 保持不變
+     */
+    public void upsertTheatersWithConnection(Connection conn, List<Theater> theaters) throws SQLException {
+        if (theaters.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO theater (type, total_seats) VALUES (?, ?) " +
+                     "ON CONFLICT(type) DO UPDATE SET total_seats = excluded.total_seats";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Theater theater : theaters) {
+                stmt.setString(1, theater.getType());
+                stmt.setInt(2, theater.getTotalSeats());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
 }
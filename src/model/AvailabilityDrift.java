@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * 場次記錄的可用座位數與依訂票紀錄計算的應有值不一致
+ */
+public class AvailabilityDrift {
+    private final int showtimeUid;
+    private final int recorded;
+    private final int expected;
+
+    public AvailabilityDrift(int showtimeUid, int recorded, int expected) {
+        this.showtimeUid = showtimeUid;
+        this.recorded = recorded;
+        this.expected = expected;
+    }
+
+    public int getShowtimeUid() {
+        return showtimeUid;
+    }
+
+    /**
+     * showtime.available_seats 目前的值
+     */
+    public int getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * 影廳座位數減去已確認的票數
+     */
+    public int getExpected() {
+        return expected;
+    }
+
+    /**
+     * 記錄值與應有值的差，正數表示多算了可用座位
+     */
+    public int getDelta() {
+        return recorded - expected;
+    }
+
+    @Override
+    public String toString() {
+        return "場次 " + showtimeUid + " 可用座位記錄為 " + recorded + "，應為 " + expected;
+    }
+}
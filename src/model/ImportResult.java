@@ -0,0 +1,49 @@
+package model;
+
+/**
+ * 一次增量匯入的結果統計
+ */
+public class ImportResult {
+    private final int inserted;
+    private final int updated;
+    private final int unchanged;
+    private final boolean sourceUnchanged;
+    private final long elapsedMillis;
+
+    public ImportResult(int inserted, int updated, int unchanged, boolean sourceUnchanged, long elapsedMillis) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        this.sourceUnchanged = sourceUnchanged;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * 來源檔指紋與上次匯入相同，未解析任何資料
+     */
+    public boolean isSourceUnchanged() {
+        return sourceUnchanged;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "新增 " + inserted + " 筆，更新 " + updated + " 筆，未變更 " + unchanged + " 筆"
+                + (sourceUnchanged ? "（來源檔未變更）" : "") + "，耗時 " + elapsedMillis + " ms";
+    }
+}
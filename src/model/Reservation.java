@@ -1,10 +1,13 @@
 package model;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import service.EntityContext;
 import service.MovieService;
 import service.ShowtimeService;
 import service.TheaterService;
+import util.TimeUtil;
 
 public class Reservation {
     private int uid;
@@ -16,6 +19,7 @@ public class Reservation {
     private String status;
     private int numTickets;
     private int showtimeUid; // 新增場次 UID
+    private Long timeEpoch; // 訂票時間的 epoch 秒
 
     // 更新建構函數，新增 showtimeUid 參數
     public Reservation(int uid, int memberUid, int movieUid, int theaterUid, String time, String seatNo, String status, int numTickets) {
@@ -69,6 +73,25 @@ public class Reservation {
 
     public void setTime(String time) {
         this.time = time;
+        this.timeEpoch = null;
+    }
+
+    public long getTimeEpoch() {
+        if (timeEpoch == null) {
+            timeEpoch = TimeUtil.parseTimestampEpoch(time);
+        }
+        return timeEpoch;
+    }
+
+    /**
+     * 由資料庫的 time_epoch 欄位設定
+     */
+    public void setTimeEpoch(long timeEpoch) {
+        this.timeEpoch = timeEpoch;
+    }
+
+    public LocalDateTime getDateTime() {
+        return TimeUtil.fromEpoch(getTimeEpoch());
     }
 
     public String getSeatNo() {
@@ -99,6 +122,10 @@ public class Reservation {
      * Returns the showtime associated with this reservation.
      */
     public Showtime getShowtime() {
+        EntityContext context = EntityContext.current();
+        if (context != null) {
+            return context.getShowtime(getShowtimeUid());
+        }
         return new ShowtimeService().getShowtimeById(getShowtimeUid());
     }
 
@@ -128,6 +155,10 @@ public class Reservation {
      * 取得關聯的電影
      */
     public Movie getMovie() {
+        EntityContext context = EntityContext.current();
+        if (context != null) {
+            return context.getMovie(movieUid);
+        }
         try {
             MovieService movieService = new MovieService();
             return movieService.getMovieById(movieUid).orElse(null);
@@ -0,0 +1,109 @@
+package model;
+
+/**
+ * 管理員訂單列表使用的唯讀投影
+ * 由單一 JOIN 查詢組成，已包含會員、電影、影廳與場次的顯示欄位，不需再逐筆查詢關聯實體
+ */
+public class ReservationView {
+    private final int uid;
+    private final int memberUid;
+    private final String memberEmail;
+    private final int movieUid;
+    private final String movieName;
+    private final int showtimeUid;
+    private final String theaterType;
+    private final String showTime;
+    private final String time;
+    private final long timeEpoch;
+    private final String seatNo;
+    private final int numTickets;
+    private final String status;
+
+    public ReservationView(int uid, int memberUid, String memberEmail, int movieUid, String movieName,
+                           int showtimeUid, String theaterType, String showTime, String time,
+                           long timeEpoch, String seatNo, int numTickets, String status) {
+        this.uid = uid;
+        this.memberUid = memberUid;
+        this.memberEmail = memberEmail;
+        this.movieUid = movieUid;
+        this.movieName = movieName;
+        this.showtimeUid = showtimeUid;
+        this.theaterType = theaterType;
+        this.showTime = showTime;
+        this.time = time;
+        this.timeEpoch = timeEpoch;
+        this.seatNo = seatNo;
+        this.numTickets = numTickets;
+        this.status = status;
+    }
+
+    public int getUid() {
+        return uid;
+    }
+
+    public int getMemberUid() {
+        return memberUid;
+    }
+
+    /**
+     * @return 會員 email，會員已不存在時為 null
+     */
+    public String getMemberEmail() {
+        return memberEmail;
+    }
+
+    public int getMovieUid() {
+        return movieUid;
+    }
+
+    /**
+     * @return 電影名稱，電影已不存在時為 null
+     */
+    public String getMovieName() {
+        return movieName;
+    }
+
+    public int getShowtimeUid() {
+        return showtimeUid;
+    }
+
+    /**
+     * @return 影廳類型，場次或影廳已不存在時為 null
+     */
+    public String getTheaterType() {
+        return theaterType;
+    }
+
+    /**
+     * @return 場次開始時間，場次已不存在時為 null
+     */
+    public String getShowTime() {
+        return showTime;
+    }
+
+    /**
+     * @return 訂票時間
+     */
+    public String getTime() {
+        return time;
+    }
+
+    /**
+     * @return 訂票時間的 epoch 秒，與 uid 一起作為分頁游標
+     */
+    public long getTimeEpoch() {
+        return timeEpoch;
+    }
+
+    public String getSeatNo() {
+        return seatNo;
+    }
+
+    public int getNumTickets() {
+        return numTickets;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
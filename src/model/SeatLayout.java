@@ -0,0 +1,184 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 影廳座位配置，以緊湊陣列保存每個座位的排、號碼與區域
+ * 座位在陣列中的位置即為其索引，可直接作為座位點陣圖的位元索引
+ */
+public class SeatLayout {
+    public static final String STANDARD_REGION = "standard";
+
+    // 排與區域索引以 byte、號碼以 short 保存，超出範圍的配置無法表示
+    public static final int MAX_ROWS = Byte.MAX_VALUE + 1;
+    public static final int MAX_REGIONS = Byte.MAX_VALUE + 1;
+    // 號碼從 1 開始，座位圖的第 0 欄用來顯示排名稱
+    public static final int MIN_SEAT_NUMBER = 1;
+    public static final int MAX_SEAT_NUMBER = Short.MAX_VALUE;
+
+    private final String name;
+    private final String[] rows;        // 不重複的排名稱，依出現順序
+    private final String[] regions;     // 不重複的區域名稱
+    private final byte[] seatRow;       // 每個座位所屬排的索引
+    private final short[] seatNumber;   // 每個座位的號碼
+    private final byte[] seatRegion;    // 每個座位所屬區域的索引
+    private final Map<String, Integer> rowIndexByName;
+    // 以 排索引 * (maxSeatNumber + 1) + 號碼 查詢座位索引，不存在的座位為 -1；
+    // 比以標籤字串為鍵的 HashMap 省下每個座位一個字串與一個節點
+    private final int[] indexByRowSeat;
+    private final int maxSeatNumber;
+
+    public SeatLayout(String name, String[] rows, String[] regions, byte[] seatRow, short[] seatNumber, byte[] seatRegion) {
+        if (seatRow.length != seatNumber.length || seatRow.length != seatRegion.length) {
+            throw new IllegalArgumentException("座位陣列長度不一致");
+        }
+        if (rows.length > MAX_ROWS || regions.length > MAX_REGIONS) {
+            throw new IllegalArgumentException("排數或區域數超過上限: " + rows.length + " 排, " + regions.length + " 個區域");
+        }
+        this.name = name;
+        this.rows = rows;
+        this.regions = regions;
+        this.seatRow = seatRow;
+        this.seatNumber = seatNumber;
+        this.seatRegion = seatRegion;
+        int max = 0;
+        for (short number : seatNumber) {
+            max = Math.max(max, number);
+        }
+        this.maxSeatNumber = max;
+        this.rowIndexByName = new HashMap<>(rows.length * 2);
+        for (int i = 0; i < rows.length; i++) {
+            rowIndexByName.putIfAbsent(rows[i], i);
+        }
+        this.indexByRowSeat = new int[rows.length * (max + 1)];
+        Arrays.fill(indexByRowSeat, -1);
+        // 同一座位重複出現時以第一個為準
+        for (int i = seatRow.length - 1; i >= 0; i--) {
+            if (seatNumber[i] >= 0) {
+                indexByRowSeat[seatRow[i] * (max + 1) + seatNumber[i]] = i;
+            }
+        }
+    }
+
+    /**
+     * 逐一加入座位建立配置，串流解析座位檔時不需先建立中間的座位列表
+     */
+    public static class Builder {
+        private final String name;
+        private final List<String> rowList = new ArrayList<>();
+        private final List<String> regionList = new ArrayList<>();
+        private final Map<String, Integer> rowIndex = new HashMap<>();
+        private final Map<String, Integer> regionIndex = new HashMap<>();
+        private byte[] seatRow = new byte[64];
+        private short[] seatNumber = new short[64];
+        private byte[] seatRegion = new byte[64];
+        private int size;
+
+        public Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param region 區域名稱，null 或空字串歸為標準區域
+         * @throws IllegalArgumentException 號碼超出 MIN_SEAT_NUMBER 到 MAX_SEAT_NUMBER，或排數、區域數超過上限
+         */
+        public Builder addSeat(String row, int number, String region) {
+            if (number < MIN_SEAT_NUMBER || number > MAX_SEAT_NUMBER) {
+                throw new IllegalArgumentException(name + " 座位號碼超出範圍: " + label(row, number));
+            }
+            if (size == seatRow.length) {
+                int capacity = size * 2;
+                seatRow = Arrays.copyOf(seatRow, capacity);
+                seatNumber = Arrays.copyOf(seatNumber, capacity);
+                seatRegion = Arrays.copyOf(seatRegion, capacity);
+            }
+            String regionName = (region == null || region.isEmpty()) ? STANDARD_REGION : region;
+            seatRow[size] = (byte) indexOf(rowList, rowIndex, row, MAX_ROWS, "排");
+            seatNumber[size] = (short) number;
+            seatRegion[size] = (byte) indexOf(regionList, regionIndex, regionName, MAX_REGIONS, "區域");
+            size++;
+            return this;
+        }
+
+        public SeatLayout build() {
+            return new SeatLayout(name, rowList.toArray(new String[0]), regionList.toArray(new String[0]),
+                    Arrays.copyOf(seatRow, size), Arrays.copyOf(seatNumber, size),
+                    Arrays.copyOf(seatRegion, size));
+        }
+
+        private int indexOf(List<String> values, Map<String, Integer> index, String value, int limit, String kind) {
+            Integer existing = index.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            if (values.size() >= limit) {
+                throw new IllegalArgumentException(name + " " + kind + "數超過上限 " + limit + ": " + value);
+            }
+            values.add(value);
+            index.put(value, values.size() - 1);
+            return values.size() - 1;
+        }
+    }
+
+    /**
+     * 座位標籤格式，例如 "A-12"
+     */
+    public static String label(String row, int seatNumber) {
+        return row + "-" + seatNumber;
+    }
+
+    public String getName() { return name; }
+
+    public int size() { return seatRow.length; }
+
+    public int getRowCount() { return rows.length; }
+
+    public String getRow(int rowIndex) { return rows[rowIndex]; }
+
+    public int getMaxSeatNumber() { return maxSeatNumber; }
+
+    /**
+     * @return 座位索引，若此配置沒有該座位則返回 -1
+     */
+    public int indexOf(String label) {
+        int dash = label.lastIndexOf('-');
+        if (dash < 0) {
+            return -1;
+        }
+        Integer row = rowIndexByName.get(label.substring(0, dash));
+        if (row == null) {
+            return -1;
+        }
+        int number;
+        try {
+            number = Integer.parseInt(label.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (number < 0 || number > maxSeatNumber) {
+            return -1;
+        }
+        return indexByRowSeat[row * (maxSeatNumber + 1) + number];
+    }
+
+    public String labelAt(int index) {
+        return label(rows[seatRow[index]], seatNumber[index]);
+    }
+
+    public int rowIndexAt(int index) { return seatRow[index]; }
+
+    public String rowAt(int index) { return rows[seatRow[index]]; }
+
+    public int seatNumberAt(int index) { return seatNumber[index]; }
+
+    public String regionAt(int index) { return regions[seatRegion[index]]; }
+
+    @Override
+    public String toString() {
+        return "SeatLayout [name=" + name + ", rows=" + rows.length + ", seats=" + seatRow.length + "]";
+    }
+}
@@ -1,7 +1,11 @@
 package model;
 
+import service.EntityContext;
 import service.MovieService;
 import service.TheaterService;
+import util.TimeUtil;
+
+import java.time.LocalDateTime;
 
 public class Showtime {
     private int uid;
@@ -10,6 +14,8 @@ public class Showtime {
     private String startTime; // 新增開始時間
     private String endTime;   // 新增結束時間
     private int availableSeats; // 可用座位數
+    private Long startEpoch; // 開始 / 結束時間的 epoch 秒，由資料庫欄位帶入或首次使用時計算
+    private Long endEpoch;
 
     // Constructor for reading from DB
     public Showtime(int uid, int movieUid, int theaterUid,
@@ -22,7 +28,7 @@ public class Showtime {
         this.availableSeats = availableSeats;
     }
 
-    // Constructor for creating new showtime (availableSeats will be set by DAO)
+    // Constructor for creating new showtime (availableSeats 由 ShowtimeService 依影廳座位數設定)
     public Showtime(int uid, int movieUid, int theaterUid,
                     String startTime, String endTime) {
         this(uid, movieUid, theaterUid, startTime, endTime, 0);
@@ -47,13 +53,49 @@ public class Showtime {
 
     public void setAvailableSeats(int availableSeats) { this.availableSeats = availableSeats; }
 
-    public void setStartTime(String startTime) { this.startTime = startTime; }
-    public void setEndTime(String endTime) { this.endTime = endTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; this.startEpoch = null; }
+    public void setEndTime(String endTime) { this.endTime = endTime; this.endEpoch = null; }
+
+    /**
+     * 由資料庫的 start_epoch / end_epoch 欄位設定，避免再解析時間字串
+     */
+    public void setEpochs(long startEpoch, long endEpoch) {
+        this.startEpoch = startEpoch;
+        this.endEpoch = endEpoch;
+    }
+
+    public long getStartEpoch() {
+        if (startEpoch == null) {
+            startEpoch = TimeUtil.parseShowtimeEpoch(startTime);
+        }
+        return startEpoch;
+    }
+
+    public long getEndEpoch() {
+        if (endEpoch == null) {
+            endEpoch = TimeUtil.parseShowtimeEpoch(endTime);
+        }
+        return endEpoch;
+    }
+
+    public LocalDateTime getStartDateTime() { return TimeUtil.fromEpoch(getStartEpoch()); }
+    public LocalDateTime getEndDateTime() { return TimeUtil.fromEpoch(getEndEpoch()); }
+
+    /**
+     * 距離開演的分鐘數，已開演則為負數
+     */
+    public long getMinutesUntilStart() {
+        return Math.floorDiv(getStartEpoch() - TimeUtil.nowEpoch(), 60);
+    }
 
     /**
      * Returns the Movie object associated with this showtime.
      */
     public Movie getMovie() {
+        EntityContext context = EntityContext.current();
+        if (context != null) {
+            return context.getMovie(movieUid);
+        }
         return new MovieService().getMovieById(movieUid).orElse(null);
     }
 
@@ -61,6 +103,10 @@ public class Showtime {
      * Returns the Theater object associated with this showtime.
      */
     public Theater getTheater() {
+        EntityContext context = EntityContext.current();
+        if (context != null) {
+            return context.getTheater(theaterUid);
+        }
         return new TheaterService().getTheaterById(theaterUid).orElse(null);
     }
 
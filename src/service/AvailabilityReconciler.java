@@ -0,0 +1,187 @@
+package service;
+
+import dao.ShowtimeDAO;
+import model.AvailabilityDrift;
+import model.Showtime;
+import util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 背景核對 showtime.available_seats 與訂票紀錄
+ * available_seats 由訂票 / 取消 / 管理員改狀態時在同一交易中增減，讀取成本低，但不保證與訂票紀錄一致：
+ * 例如交易提交後行程中斷、直接修改資料庫、匯入資料或早期版本留下的差異，因此仍需以訂票紀錄為準定期核對
+ * 訂票紀錄變動的場次標記為待核對，背景執行緒定期只重算這些場次並修正不一致的值；啟動後第一次執行會核對所有場次
+ */
+public class AvailabilityReconciler {
+    // 核對間隔（秒），可用 -Dcinema.availability.reconcileSeconds 調整
+    private static final long INTERVAL_SECONDS = Long.getLong("cinema.availability.reconcileSeconds", 30L);
+
+    private static final AvailabilityReconciler INSTANCE = new AvailabilityReconciler();
+
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final Set<Integer> dirtyShowtimes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean fullSweepPending = true;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong checkedShowtimes = new AtomicLong();
+    private final AtomicLong driftedShowtimes = new AtomicLong();
+    private final AtomicLong driftedSeats = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private volatile long lastDriftMillis;
+
+    private AvailabilityReconciler() {
+    }
+
+    public static AvailabilityReconciler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 啟動背景核對，重複呼叫不會建立多個執行緒
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "availability-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 場次的訂票紀錄已變動，下次核對時重算
+     */
+    public void markDirty(int showtimeUid) {
+        dirtyShowtimes.add(showtimeUid);
+    }
+
+    /**
+     * 下次核對時重算所有場次，例如資料庫重設或匯入後
+     */
+    public void markAllDirty() {
+        fullSweepPending = true;
+    }
+
+    /**
+     * 立即核對待核對的場次
+     * @return 本次修正的場次
+     */
+    public synchronized List<AvailabilityDrift> reconcileNow() throws SQLException {
+        List<Integer> uids = new ArrayList<>();
+        if (fullSweepPending) {
+            fullSweepPending = false;
+            dirtyShowtimes.clear();
+            for (Showtime showtime : showtimeDAO.getAllShowtimes()) {
+                uids.add(showtime.getUid());
+            }
+        } else {
+            for (Iterator<Integer> it = dirtyShowtimes.iterator(); it.hasNext(); ) {
+                uids.add(it.next());
+                it.remove();
+            }
+        }
+        runs.incrementAndGet();
+        if (uids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<AvailabilityDrift> corrected = new ArrayList<>();
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            List<AvailabilityDrift> drift = showtimeDAO.findAvailableSeatDriftWithConnection(conn, uids);
+            Set<Integer> fixed = showtimeDAO.correctAvailableSeatsWithConnection(conn, drift);
+            conn.commit();
+            checkedShowtimes.addAndGet(uids.size());
+            for (AvailabilityDrift d : drift) {
+                if (fixed.contains(d.getShowtimeUid())) {
+                    corrected.add(d);
+                } else {
+                    // 查詢後已被訂票或取消改變，下次再核對
+                    dirtyShowtimes.add(d.getShowtimeUid());
+                }
+            }
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            dirtyShowtimes.addAll(uids);
+            failedRuns.incrementAndGet();
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        if (!corrected.isEmpty()) {
+            lastDriftMillis = System.currentTimeMillis();
+            driftedShowtimes.addAndGet(corrected.size());
+            for (AvailabilityDrift d : corrected) {
+                driftedSeats.addAndGet(Math.abs(d.getDelta()));
+                System.err.println("[可用座位] 已修正: " + d);
+            }
+        }
+        return corrected;
+    }
+
+    private void runSafely() {
+        try {
+            reconcileNow();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("[可用座位] 核對失敗，待核對場次保留到下次: " + e.getMessage());
+        }
+    }
+
+    public long getRuns() { return runs.get(); }
+
+    public long getCheckedShowtimes() { return checkedShowtimes.get(); }
+
+    /**
+     * 累計發現並修正的不一致場次數
+     */
+    public long getDriftedShowtimes() { return driftedShowtimes.get(); }
+
+    /**
+     * 累計修正的座位數（各場次差值的絕對值總和）
+     */
+    public long getDriftedSeats() { return driftedSeats.get(); }
+
+    public long getFailedRuns() { return failedRuns.get(); }
+
+    public int getPendingShowtimes() { return dirtyShowtimes.size(); }
+
+    @Override
+    public String toString() {
+        return String.format("AvailabilityReconciler [runs=%d, checked=%d, drifted=%d showtimes / %d seats, failed=%d, pending=%d%s]",
+                getRuns(), getCheckedShowtimes(), getDriftedShowtimes(), getDriftedSeats(), getFailedRuns(),
+                getPendingShowtimes(), lastDriftMillis > 0 ? ", lastDrift=" + new Date(lastDriftMillis) : "");
+    }
+}
@@ -0,0 +1,213 @@
+package service;
+
+import dao.MovieDAO;
+import model.Movie;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 電影目錄的讀取快取
+ * 依 uid 快取的電影數量有上限，超過時淘汰最久未使用的項目；所有項目與完整列表在 TTL 後過期重新讀取
+ * 由 MovieService 的新增 / 更新 / 刪除及其他直接寫入 movie 表的流程明確失效
+ */
+public class CatalogCache {
+    // 依 uid 快取的電影上限，可用 -Dcinema.catalog.maxEntries 調整
+    private static final int MAX_ENTRIES = Integer.getInteger("cinema.catalog.maxEntries", 512);
+    // 快取有效時間（秒），可用 -Dcinema.catalog.ttlSeconds 調整
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(
+            Long.getLong("cinema.catalog.ttlSeconds", 60L));
+
+    private static final CatalogCache INSTANCE = new CatalogCache();
+
+    private final MovieDAO movieDAO = new MovieDAO();
+
+    // accessOrder = true，removeEldestEntry 淘汰最久未使用的電影
+    private final LinkedHashMap<Integer, Entry> byId = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                byName.remove(eldest.getValue().movie.getName(), eldest.getKey());
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<String, Integer> byName = new HashMap<>();
+    private List<Movie> allMovies;
+    private long allMoviesExpiresAt;
+
+    // 每次失效遞增，載入期間發生失效時不寫回過時的結果
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    private CatalogCache() {
+    }
+
+    public static CatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 依 uid 取得電影，不存在時返回 null
+     */
+    public Movie getMovieById(int uid) {
+        long loadGeneration;
+        synchronized (this) {
+            Movie cached = lookup(uid);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        Movie movie = movieDAO.getMovieById(uid);
+        synchronized (this) {
+            if (movie != null && loadGeneration == generation) {
+                put(movie);
+            }
+        }
+        return movie;
+    }
+
+    /**
+     * 依名稱取得電影，不存在時返回 null
+     */
+    public Movie getMovieByName(String name) {
+        long loadGeneration;
+        synchronized (this) {
+            Integer uid = byName.get(name);
+            Movie cached = uid != null ? lookup(uid) : null;
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        Movie movie = movieDAO.getMovieByName(name);
+        synchronized (this) {
+            if (movie != null && loadGeneration == generation) {
+                put(movie);
+            }
+        }
+        return movie;
+    }
+
+    /**
+     * 取得所有電影，返回的列表可由呼叫端自由修改
+     */
+    public List<Movie> getAllMovies() {
+        long loadGeneration;
+        synchronized (this) {
+            if (allMovies != null && System.nanoTime() - allMoviesExpiresAt < 0) {
+                hits++;
+                return new ArrayList<>(allMovies);
+            }
+            if (allMovies != null) {
+                expirations++;
+                allMovies = null;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        List<Movie> movies = movieDAO.getAllMovies();
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                allMovies = new ArrayList<>(movies);
+                allMoviesExpiresAt = System.nanoTime() + TTL_NANOS;
+                for (Movie movie : movies) {
+                    put(movie);
+                }
+            }
+        }
+        return movies;
+    }
+
+    /**
+     * 電影新增、更新或刪除後呼叫；完整列表一併失效
+     */
+    public synchronized void invalidate(int uid) {
+        Entry entry = byId.remove(uid);
+        if (entry != null) {
+            byName.remove(entry.movie.getName(), uid);
+        }
+        allMovies = null;
+        generation++;
+    }
+
+    /**
+     * 清空快取，電影資料被批次匯入或資料庫重建時使用
+     */
+    public synchronized void invalidateAll() {
+        byId.clear();
+        byName.clear();
+        allMovies = null;
+        generation++;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("CatalogCache[entries=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d]",
+                byId.size(), MAX_ENTRIES, hits, misses, lookups == 0 ? 0.0 : hits * 100.0 / lookups,
+                evictions, expirations);
+    }
+
+    private Movie lookup(int uid) {
+        Entry entry = byId.get(uid);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            byId.remove(uid);
+            byName.remove(entry.movie.getName(), uid);
+            expirations++;
+            return null;
+        }
+        return entry.movie;
+    }
+
+    private void put(Movie movie) {
+        Entry previous = byId.put(movie.getUid(), new Entry(movie, System.nanoTime() + TTL_NANOS));
+        if (previous != null && !previous.movie.getName().equals(movie.getName())) {
+            byName.remove(previous.movie.getName(), movie.getUid());
+        }
+        byName.put(movie.getName(), movie.getUid());
+    }
+
+    private static class Entry {
+        private final Movie movie;
+        private final long expiresAt;
+
+        Entry(Movie movie, long expiresAt) {
+            this.movie = movie;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
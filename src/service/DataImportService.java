@@ -1,24 +1,67 @@
 package service;
 
+import dao.ImportFingerprintDAO;
 import dao.MovieDAO;
 import dao.TheaterDAO;
+import model.ImportResult;
 import model.Movie;
+import model.SeatLayout;
 import model.Theater;
+import util.DBUtil;
+import util.FingerprintUtil;
 import util.JsonDataLoader;
+import util.SeatLayoutFile;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 處理從JSON檔案導入資料到資料庫
+ * 匯入分為三個階段：解析（parse）→ 驗證（validate）→ 寫入（write）
+ * 非同步匯入時各來源檔在解析執行緒池中平行解析與驗證，所有寫入則交由單一寫入執行緒依序以批次事務完成，
+ * 避免多個匯入同時寫入 SQLite 互相等待鎖
  */
 public class DataImportService {
+    // 平行解析的執行緒數，可用 -Dcinema.import.parseThreads 調整
+    private static final int PARSE_THREADS = Integer.getInteger("cinema.import.parseThreads",
+            Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors())));
+
+    private static final ExecutorService PARSE_EXECUTOR =
+            Executors.newFixedThreadPool(PARSE_THREADS, daemonThreads("import-parse"));
+    private static final ExecutorService WRITE_EXECUTOR =
+            Executors.newSingleThreadExecutor(daemonThreads("import-writer"));
+
     private final MovieDAO movieDAO;
     private final TheaterDAO theaterDAO;
+    private final ImportFingerprintDAO fingerprintDAO;
+
+    /**
+     * 匯入進度的回調，於背景執行緒呼叫
+     */
+    public interface ProgressListener {
+        void onProgress(String message);
+    }
 
     public DataImportService() {
         this.movieDAO = new MovieDAO();
         this.theaterDAO = new TheaterDAO();
+        this.fingerprintDAO = new ImportFingerprintDAO();
     }
 
     /**
@@ -42,10 +85,25 @@ public class DataImportService {
                 System.out.println("電影已存在: " + movie.getName());
             }
         }
+        if (importedCount > 0) {
+            CatalogCache.getInstance().invalidateAll();
+        }
 
         return importedCount;
     }
 
+    /**
+     * 以指紋比對增量導入電影資訊
+     * 來源檔與上次匯入相同時直接返回，不解析檔案；否則逐筆比對電影名稱與內容指紋，
+     * 只新增或更新有變動的電影，所有寫入與新指紋在同一個事務中批次完成
+     * 內容與上次匯入相同的電影不會被覆寫，因此管理員在後台的修改會保留到來源檔中該筆資料變更為止
+     * @param jsonFilePath 電影JSON檔案路徑
+     * @return 新增 / 更新 / 未變更的數量與耗時
+     */
+    public ImportResult importMoviesIncremental(String jsonFilePath) throws IOException, SQLException {
+        return writeMovies(validateMovies(parseMovies(jsonFilePath)));
+    }
+
     /**
      * 從JSON檔案導入影廳座位資訊
      * @param bigRoomPath 大廳JSON檔案路徑
@@ -53,70 +111,302 @@ public class DataImportService {
      * @return 成功導入的影廳數量
      */
     public int importTheatersFromJson(String bigRoomPath, String smallRoomPath) {
-        Map<String, List<Map<String, Object>>> theaterData = 
-            JsonDataLoader.loadTheaterSeatsFromJson(bigRoomPath, smallRoomPath);
-        Map<String, Integer> seatCounts = JsonDataLoader.getTheaterSeatCounts(theaterData);
-        
-        int importedCount = 0;
-        
-        // 導入大廳
-        String bigRoomType = "大廳";
-        if (seatCounts.containsKey(bigRoomType)) {
-            int totalSeats = seatCounts.get(bigRoomType);
-            // 檢查影廳是否已存在
-            Theater existingBigRoom = theaterDAO.getTheaterByType(bigRoomType);
-            
-            if (existingBigRoom == null) {
-                // 新增影廳
-                Theater bigRoom = new Theater(0, bigRoomType, totalSeats);
-                int uid = theaterDAO.addTheater(bigRoom);
-                if (uid > 0) {
-                    importedCount++;
-                    System.out.println("導入影廳: " + bigRoomType + ", 座位數: " + totalSeats);
+        Map<String, String> layoutFiles = new LinkedHashMap<>();
+        layoutFiles.put(TheaterService.BIG_ROOM_TYPE, bigRoomPath);
+        layoutFiles.put(TheaterService.SMALL_ROOM_TYPE, smallRoomPath);
+        return join(importTheatersAsync(layoutFiles));
+    }
+
+    /**
+     * 從影廳清單檔或座位檔目錄導入任意數量的影廳，格式見 JsonDataLoader.loadTheaterLayoutFiles
+     * @return 成功新增或更新的影廳數量，失敗時返回 0
+     */
+    public int importTheaters(String manifestOrDirectory) {
+        return join(importTheatersAsync(manifestOrDirectory));
+    }
+
+    /**
+     * 非同步導入清單檔或目錄中的所有影廳：各座位檔平行解析，全部通過驗證後在單一事務中批次寫入
+     * @return 完成時為新增或更新的影廳數量
+     */
+    public CompletableFuture<Integer> importTheatersAsync(String manifestOrDirectory) {
+        return supplyAsync(() -> JsonDataLoader.loadTheaterLayoutFiles(manifestOrDirectory), PARSE_EXECUTOR)
+            .thenCompose(this::importTheatersAsync);
+    }
+
+    /**
+     * 非同步匯入電影與影廳：電影檔與各影廳座位檔同時解析，寫入依序交給單一寫入執行緒
+     * 電影與影廳互不相依，其中一方失敗不影響另一方
+     * @param theaterManifestOrDirectory 影廳清單檔或座位檔目錄
+     * @param listener 進度回調，於背景執行緒呼叫
+     * @return 全部完成時完成的 future；任一方失敗時以該例外完成
+     */
+    public CompletableFuture<Void> importAllAsync(String movieJsonPath, String theaterManifestOrDirectory,
+                                                  ProgressListener listener) {
+        CompletableFuture<Void> movies = supplyAsync(() -> parseMovies(movieJsonPath), PARSE_EXECUTOR)
+            .thenApply(this::validateMovies)
+            .thenApplyAsync(batch -> call(() -> writeMovies(batch)), WRITE_EXECUTOR)
+            .handle((result, error) -> {
+                listener.onProgress(error == null
+                    ? "電影資料導入完成：" + result
+                    : "電影資料導入失敗：" + rootMessage(error));
+                return rethrow(error);
+            });
+
+        CompletableFuture<Void> theaters = importTheatersAsync(theaterManifestOrDirectory)
+            .handle((count, error) -> {
+                listener.onProgress(error == null
+                    ? "影廳資料導入完成：更新 " + count + " 個影廳"
+                    : "影廳資料導入失敗：" + rootMessage(error));
+                return rethrow(error);
+            });
+
+        return CompletableFuture.allOf(movies, theaters);
+    }
+
+    private CompletableFuture<Integer> importTheatersAsync(Map<String, String> layoutFiles) {
+        Map<String, CompletableFuture<SeatLayout>> parsed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : layoutFiles.entrySet()) {
+            parsed.put(entry.getKey(), supplyAsync(() -> parseLayout(entry.getKey(), entry.getValue()), PARSE_EXECUTOR)
+                .thenApply(this::validateLayout));
+        }
+        return CompletableFuture.allOf(parsed.values().toArray(new CompletableFuture<?>[0]))
+            .thenApplyAsync(ignored -> {
+                Map<String, SeatLayout> layouts = new LinkedHashMap<>();
+                for (Map.Entry<String, CompletableFuture<SeatLayout>> entry : parsed.entrySet()) {
+                    layouts.put(entry.getKey(), entry.getValue().join());
                 }
+                return call(() -> writeTheaters(layouts));
+            }, WRITE_EXECUTOR);
+    }
+
+    // ---- 解析階段：只讀取來源檔與指紋，不寫入資料庫 ----
+
+    /**
+     * 解析電影檔；來源檔指紋與上次匯入相同且電影未被刪除時不解析內容
+     */
+    private MovieBatch parseMovies(String jsonFilePath) throws IOException {
+        long start = System.nanoTime();
+        String fileHash = FingerprintUtil.ofFile(jsonFilePath);
+        Map<String, String> previous = fingerprintDAO.getFingerprints(jsonFilePath);
+        int previousRecords = previous.containsKey(ImportFingerprintDAO.FILE_KEY) ? previous.size() - 1 : previous.size();
+
+        // 電影數少於上次匯入的筆數表示資料被刪除或資料庫被替換，需完整比對
+        if (fileHash.equals(previous.get(ImportFingerprintDAO.FILE_KEY)) && movieDAO.countMovies() >= previousRecords) {
+            return new MovieBatch(jsonFilePath, fileHash, previous, null, previousRecords, start);
+        }
+        List<Movie> movies = new ArrayList<>();
+        JsonDataLoader.forEachMovie(jsonFilePath, movies::add);
+        return new MovieBatch(jsonFilePath, fileHash, previous, movies, previousRecords, start);
+    }
+
+    /**
+     * 載入座位檔，來源 JSON 未變更時直接映射編譯檔，否則解析並重新編譯；檔案錯誤時拋出例外而不是返回空配置
+     */
+    private SeatLayout parseLayout(String type, String filePath) throws IOException {
+        return SeatLayoutFile.load(type, filePath);
+    }
+
+    // ---- 驗證階段：剔除無法寫入的資料 ----
+
+    /**
+     * 剔除缺少必要欄位的電影；同名電影只採用檔案中的第一筆
+     */
+    private MovieBatch validateMovies(MovieBatch batch) {
+        if (batch.movies == null) {
+            return batch;
+        }
+        List<Movie> valid = new ArrayList<>(batch.movies.size());
+        Set<String> names = new HashSet<>();
+        for (Movie movie : batch.movies) {
+            if (movie.getDuration() <= 0 || movie.getRating() == null) {
+                System.err.println("略過資料不完整的電影: " + movie.getName());
+            } else if (!names.add(movie.getName())) {
+                System.err.println("略過重複的電影: " + movie.getName());
             } else {
-                // 更新現有影廳的座位數
-                Theater updatedBigRoom = new Theater(
-                    existingBigRoom.getUid(), 
-                    existingBigRoom.getType(), 
-                    totalSeats
-                );
-                if (theaterDAO.updateTheater(updatedBigRoom)) {
-                    importedCount++;
-                    System.out.println("更新影廳: " + bigRoomType + ", 座位數: " + totalSeats);
-                }
+                valid.add(movie);
             }
         }
-        
-        // 導入小廳
-        String smallRoomType = "小廳";
-        if (seatCounts.containsKey(smallRoomType)) {
-            int totalSeats = seatCounts.get(smallRoomType);
-            // 檢查影廳是否已存在
-            Theater existingSmallRoom = theaterDAO.getTheaterByType(smallRoomType);
-            
-            if (existingSmallRoom == null) {
-                // 新增影廳
-                Theater smallRoom = new Theater(0, smallRoomType, totalSeats);
-                int uid = theaterDAO.addTheater(smallRoom);
-                if (uid > 0) {
-                    importedCount++;
-                    System.out.println("導入影廳: " + smallRoomType + ", 座位數: " + totalSeats);
-                }
+        return new MovieBatch(batch.source, batch.fileHash, batch.previous, valid, batch.previousRecords, batch.startNanos);
+    }
+
+    private SeatLayout validateLayout(SeatLayout layout) {
+        if (layout.size() == 0) {
+            throw new IllegalArgumentException(layout.getName() + " 座位檔沒有任何座位");
+        }
+        return layout;
+    }
+
+    // ---- 寫入階段：每個來源一個事務 ----
+
+    private ImportResult writeMovies(MovieBatch batch) throws SQLException {
+        if (batch.movies == null) {
+            return new ImportResult(0, 0, batch.previousRecords, true, elapsedMillis(batch.startNanos));
+        }
+
+        Map<String, Movie> existingByName = new HashMap<>();
+        for (Movie movie : movieDAO.getAllMovies()) {
+            existingByName.putIfAbsent(movie.getName(), movie);
+        }
+
+        List<Movie> toInsert = new ArrayList<>();
+        List<Movie> toUpdate = new ArrayList<>();
+        Map<String, String> fingerprints = new HashMap<>();
+        int unchanged = 0;
+        for (Movie movie : batch.movies) {
+            String recordHash = movieFingerprint(movie);
+            fingerprints.put(movie.getName(), recordHash);
+            Movie existing = existingByName.get(movie.getName());
+            if (existing == null) {
+                toInsert.add(movie);
+            } else if (recordHash.equals(batch.previous.get(movie.getName()))
+                    || recordHash.equals(movieFingerprint(existing))) {
+                unchanged++;
             } else {
-                // 更新現有影廳的座位數
-                Theater updatedSmallRoom = new Theater(
-                    existingSmallRoom.getUid(), 
-                    existingSmallRoom.getType(), 
-                    totalSeats
-                );
-                if (theaterDAO.updateTheater(updatedSmallRoom)) {
-                    importedCount++;
-                    System.out.println("更新影廳: " + smallRoomType + ", 座位數: " + totalSeats);
-                }
+                toUpdate.add(new Movie(existing.getUid(), movie.getName(), movie.getDuration(),
+                        movie.getDescription(), movie.getRating()));
             }
         }
-        
-        return importedCount;
+        fingerprints.put(ImportFingerprintDAO.FILE_KEY, batch.fileHash);
+
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                movieDAO.addMoviesWithConnection(conn, toInsert);
+                movieDAO.updateMoviesWithConnection(conn, toUpdate);
+                fingerprintDAO.replaceFingerprintsWithConnection(conn, batch.source, fingerprints);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        if (!toInsert.isEmpty() || !toUpdate.isEmpty()) {
+            CatalogCache.getInstance().invalidateAll();
+        }
+
+        return new ImportResult(toInsert.size(), toUpdate.size(), unchanged, false, elapsedMillis(batch.startNanos));
+    }
+
+    /**
+     * 在單一事務中批次新增或更新各影廳的座位數，並以新的座位配置替換 TheaterService 快照
+     * @param layouts 影廳類型 → 座位配置
+     * @return 新增或更新的影廳數量
+     */
+    private int writeTheaters(Map<String, SeatLayout> layouts) throws SQLException {
+        List<Theater> theaters = new ArrayList<>(layouts.size());
+        for (Map.Entry<String, SeatLayout> entry : layouts.entrySet()) {
+            theaters.add(new Theater(0, entry.getKey(), entry.getValue().size()));
+        }
+
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                theaterDAO.upsertTheatersWithConnection(conn, theaters);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        for (Theater theater : theaters) {
+            System.out.println("導入影廳: " + theater.getType() + ", 座位數: " + theater.getTotalSeats());
+        }
+
+        // 以剛匯入的影廳與座位配置替換 TheaterService 快照，並重建各場次的座位點陣圖
+        new TheaterService().reload(layouts);
+        SeatOccupancyCache.getInstance().invalidateAll();
+
+        return theaters.size();
+    }
+
+    private static String movieFingerprint(Movie movie) {
+        return FingerprintUtil.ofFields(movie.getName(), movie.getDuration(), movie.getDescription(), movie.getRating());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    // ---- 非同步工具 ----
+
+    private static <T> CompletableFuture<T> supplyAsync(Callable<T> task, ExecutorService executor) {
+        return CompletableFuture.supplyAsync(() -> call(task), executor);
+    }
+
+    /**
+     * 執行會拋出檢查例外的工作，例外包裝為 CompletionException 交給 future
+     */
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 同步等待匯入結果，失敗時印出錯誤並返回 0
+     */
+    private static int join(CompletableFuture<Integer> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            System.err.println("Error importing theaters: " + rootMessage(e));
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private static Void rethrow(Throwable error) {
+        if (error == null) {
+            return null;
+        }
+        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 解析階段的結果；movies 為 null 表示來源檔未變更，不需寫入
+     */
+    private static class MovieBatch {
+        private final String source;
+        private final String fileHash;
+        private final Map<String, String> previous;
+        private final List<Movie> movies;
+        private final int previousRecords;
+        private final long startNanos;
+
+        MovieBatch(String source, String fileHash, Map<String, String> previous, List<Movie> movies,
+                   int previousRecords, long startNanos) {
+            this.source = source;
+            this.fileHash = fileHash;
+            this.previous = Collections.unmodifiableMap(previous);
+            this.movies = movies;
+            this.previousRecords = previousRecords;
+            this.startNanos = startNanos;
+        }
     }
-}
\ No newline at end of file
+}
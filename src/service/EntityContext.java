@@ -0,0 +1,162 @@
+package service;
+
+import dao.MemberDAO;
+import dao.MovieDAO;
+import dao.ShowtimeDAO;
+import model.Member;
+import model.Movie;
+import model.Reservation;
+import model.Showtime;
+import model.Theater;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 單次請求範圍內的實體識別表（identity map）
+ * 組裝訂單或場次列表前先開啟並預載，同一 uid 的電影 / 場次 / 會員只查詢一次，
+ * 且每種實體以一次 IN 查詢批次載入；開啟期間 Reservation.getShowtime()、Showtime.getMovie() 等方法會優先使用此表
+ *
+ * <pre>
+ * try (EntityContext ctx = EntityContext.open()) {
+ *     ctx.preloadReservations(reservations);
+ *     ...
+ * }
+ * </pre>
+ */
+public class EntityContext implements AutoCloseable {
+    private static final ThreadLocal<EntityContext> CURRENT = new ThreadLocal<>();
+
+    private final EntityContext outer;
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final MovieDAO movieDAO = new MovieDAO();
+    private final TheaterService theaterService = new TheaterService();
+    private final MemberDAO memberDAO = new MemberDAO();
+
+    // 值為 null 表示已查詢過但不存在，避免重複查詢
+    private final Map<Integer, Showtime> showtimes = new HashMap<>();
+    private final Map<Integer, Movie> movies = new HashMap<>();
+    private final Map<Integer, Member> members = new HashMap<>();
+    private int queryCount;
+
+    private EntityContext(EntityContext outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * 在目前執行緒開啟新的識別表，需以 try-with-resources 關閉
+     */
+    public static EntityContext open() {
+        EntityContext context = new EntityContext(CURRENT.get());
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * @return 目前執行緒開啟中的識別表，沒有則為 null
+     */
+    public static EntityContext current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void close() {
+        if (outer != null) {
+            CURRENT.set(outer);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 預載訂單列表所需的場次、電影與會員，每種實體一次查詢
+     */
+    public void preloadReservations(Collection<Reservation> reservations) {
+        Set<Integer> showtimeIds = new LinkedHashSet<>();
+        Set<Integer> movieIds = new LinkedHashSet<>();
+        Set<Integer> memberIds = new LinkedHashSet<>();
+        for (Reservation reservation : reservations) {
+            showtimeIds.add(reservation.getShowtimeUid());
+            movieIds.add(reservation.getMovieUid());
+            memberIds.add(reservation.getMemberUid());
+        }
+        loadMissing(showtimes, showtimeIds, showtimeDAO::getShowtimesByIds);
+
+        for (int showtimeId : showtimeIds) {
+            Showtime showtime = showtimes.get(showtimeId);
+            if (showtime != null) {
+                movieIds.add(showtime.getMovieUid());
+            }
+        }
+        loadMissing(movies, movieIds, movieDAO::getMoviesByIds);
+        loadMissing(members, memberIds, memberDAO::getMembersByIds);
+    }
+
+    /**
+     * 登記已載入的場次並預載其電影
+     */
+    public void preloadShowtimes(Collection<Showtime> list) {
+        Set<Integer> movieIds = new LinkedHashSet<>();
+        for (Showtime showtime : list) {
+            showtimes.putIfAbsent(showtime.getUid(), showtime);
+            movieIds.add(showtime.getMovieUid());
+        }
+        loadMissing(movies, movieIds, movieDAO::getMoviesByIds);
+    }
+
+    public Showtime getShowtime(int uid) {
+        return get(showtimes, uid, showtimeDAO::getShowtimesByIds);
+    }
+
+    public Movie getMovie(int uid) {
+        return get(movies, uid, movieDAO::getMoviesByIds);
+    }
+
+    /**
+     * 影廳直接取自 TheaterService 的快照，不佔用查詢次數
+     */
+    public Theater getTheater(int uid) {
+        return theaterService.getTheaterById(uid).orElse(null);
+    }
+
+    public Member getMember(int uid) {
+        return get(members, uid, memberDAO::getMembersByIds);
+    }
+
+    /**
+     * 此識別表開啟以來執行的資料庫查詢次數
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    private <T> T get(Map<Integer, T> cache, int uid, Function<Collection<Integer>, Map<Integer, T>> loader) {
+        if (!cache.containsKey(uid)) {
+            loadMissing(cache, Collections.singleton(uid), loader);
+        }
+        return cache.get(uid);
+    }
+
+    private <T> void loadMissing(Map<Integer, T> cache, Collection<Integer> ids,
+                                 Function<Collection<Integer>, Map<Integer, T>> loader) {
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (!cache.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Integer, T> loaded = loader.apply(missing);
+        queryCount++;
+        for (Integer id : missing) {
+            cache.put(id, loaded.get(id));
+        }
+    }
+}
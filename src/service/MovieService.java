@@ -4,6 +4,7 @@ import dao.MovieDAO;
 import dao.ShowtimeDAO; // Import ShowtimeDAO
 import model.Movie;
 import model.Showtime;
+import util.TimeUtil;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,6 +16,7 @@ import javax.swing.JOptionPane; // Import JOptionPane
 public class MovieService {
     private final MovieDAO movieDAO = new MovieDAO();
     private final ShowtimeDAO showtimeDAO = new ShowtimeDAO(); // Add ShowtimeDAO
+    private final CatalogCache catalogCache = CatalogCache.getInstance();
 
     /**
      * Adds a new movie.
@@ -29,6 +31,7 @@ public class MovieService {
         // Modify MovieDAO.addMovie to return the generated ID or the full object
         int generatedId = movieDAO.addMovie(movie); // Assuming addMovie now returns ID
         if (generatedId > 0) {
+             catalogCache.invalidate(generatedId);
              // Re-fetch the movie to get the complete object with the ID
              return movieDAO.getMovieById(generatedId);
         } else {
@@ -38,7 +41,7 @@ public class MovieService {
     }
 
     public List<Movie> listMovies() {
-        return movieDAO.getAllMovies();
+        return catalogCache.getAllMovies();
     }
 
     /**
@@ -54,7 +57,7 @@ public class MovieService {
      * @return An Optional containing the Movie if found, otherwise empty.
      */
     public Optional<Movie> getMovieById(int movieId) {
-        return Optional.ofNullable(movieDAO.getMovieById(movieId));
+        return Optional.ofNullable(catalogCache.getMovieById(movieId));
     }
 
     /**
@@ -81,6 +84,7 @@ public class MovieService {
 
         Movie movieToUpdate = new Movie(movieId, name, duration, description, rating);
         boolean updated = movieDAO.updateMovie(movieToUpdate); // Assuming updateMovie returns boolean
+        catalogCache.invalidate(movieId);
         if (!updated) {
              System.err.println("Failed to update movie with ID " + movieId + " in the database.");
         }
@@ -100,6 +104,7 @@ public class MovieService {
         }
 
         boolean deleted = movieDAO.deleteMovie(movieId); // Assuming deleteMovie returns boolean
+        catalogCache.invalidate(movieId);
         if (deleted) {
             System.out.println("Movie with ID " + movieId + " and its associated showtimes/reservations removed successfully.");
         } else {
@@ -141,8 +146,15 @@ public class MovieService {
         }
     }
 
+    /**
+     * 電影目錄快取的命中、未命中、淘汰與過期統計
+     */
+    public String getCatalogCacheStats() {
+        return catalogCache.toString();
+    }
+
     public Optional<Movie> getMovieByName(String name) {
-        return Optional.ofNullable(movieDAO.getMovieByName(name));
+        return Optional.ofNullable(catalogCache.getMovieByName(name));
     }
 
     /**
@@ -154,8 +166,8 @@ public class MovieService {
             System.err.println("Showtime not found.");
             return false;
         }
-        int duration = movieDAO.getMovieById(showtime.getMovieUid()).getDuration();
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        int duration = catalogCache.getMovieById(showtime.getMovieUid()).getDuration();
+        DateTimeFormatter fmt = TimeUtil.SHOWTIME_FORMAT;
         LocalDateTime st = LocalDateTime.parse(newTime, fmt);
         String newEnd = st.plusMinutes(duration).format(fmt);
         try {
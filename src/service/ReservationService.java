@@ -4,32 +4,39 @@ import dao.ReservationDAO;
 import dao.MemberDAO;
 import dao.ShowtimeDAO;
 import dao.MovieDAO;
+import dao.ReviewDAO;
 import model.Reservation;
+import model.ReservationView;
+import model.Review;
 import exception.AgeRestrictionException;
 import exception.SeatUnavailableException;
 import model.Movie;
 import model.Showtime;
 import model.Member;
 import util.DBUtil;
+import util.TimeUtil;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.ArrayList;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
-import java.util.Date;
+import java.util.Map;
+import java.util.Set;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public class ReservationService {
     private final ReservationDAO reservationDAO = new ReservationDAO();
     private final MemberDAO memberDAO = new MemberDAO();
     private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
     private final MovieDAO movieDAO = new MovieDAO();
+    private final ReviewDAO reviewDAO = new ReviewDAO();
+    private final SeatOccupancyCache seatOccupancy = SeatOccupancyCache.getInstance();
+    private final ShowtimeLockStripes showtimeLocks = ShowtimeLockStripes.getInstance();
+    private final SeatHoldService seatHolds = SeatHoldService.getInstance();
+    private final SeatEventBus seatEvents = SeatEventBus.getInstance();
+    private final AvailabilityReconciler availability = AvailabilityReconciler.getInstance();
 
     /**
      * 單一座位訂票方法 (保留舊方法以支援向下兼容)
@@ -92,6 +99,7 @@ public class ReservationService {
             throws AgeRestrictionException, SeatUnavailableException {
         List<Integer> reservationIds = new ArrayList<>();
         Connection conn = null;
+        ShowtimeLockStripes.Handle showtimeLock = null;
         
         try {
             // 檢查會員是否存在
@@ -131,21 +139,28 @@ public class ReservationService {
                 throw new IllegalArgumentException("電影ID與場次所屬電影ID不一致");
             }
 
+            // 同一場次的訂票依序執行（SQLite 沒有 SELECT ... FOR UPDATE），不同場次互不阻擋
+            showtimeLock = showtimeLocks.lock(showtimeUid);
+
+            // 先以記憶體中的座位點陣圖與座位保留快速排除不可訂的座位，避免開啟無謂的事務
+            for (String seat : selectedSeats) {
+                if (seatOccupancy.isBooked(showtimeUid, seat)) {
+                    throw new SeatUnavailableException("座位 " + seat + " 已被預訂");
+                }
+                if (seatHolds.isHeldByOther(showtimeUid, memberUid, seat)) {
+                    throw new SeatUnavailableException("座位 " + seat + " 正由其他會員保留中");
+                }
+            }
+
             // 開始事務
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
             
-            // 1. 檢查座位是否已被預訂（使用行鎖定）
+            // 1. 一次查詢檢查座位是否已被預訂（同場次已由 showtimeLock 串行化）
+            Set<String> occupiedSeats = reservationDAO.getConfirmedSeatNosWithConnection(conn, showtimeUid, selectedSeats);
             for (String seat : selectedSeats) {
-                List<Reservation> existingReservations = reservationDAO.getLockedReservationsByShowtimeAndSeat(conn, showtimeUid, seat);
-                if (!existingReservations.isEmpty()) {
-                    // 檢查是否有非取消狀態的訂票
-                    boolean seatOccupied = existingReservations.stream()
-                            .anyMatch(r -> !"CANCELLED".equals(r.getStatus()));
-                    if (seatOccupied) {
-                        // 座位已被佔用，拋出異常
-                        throw new SeatUnavailableException("座位 " + seat + " 已被預訂");
-                    }
+                if (occupiedSeats.contains(seat)) {
+                    throw new SeatUnavailableException("座位 " + seat + " 已被預訂");
                 }
             }
             
@@ -160,8 +175,9 @@ public class ReservationService {
                 throw new SeatUnavailableException("無法預訂所選座位，可能座位已被他人預訂");
             }
             
-            // 4. 創建訂票紀錄
-            String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            // 4. 以批次方式創建訂票紀錄
+            String currentTime = LocalDateTime.now().format(TimeUtil.TIMESTAMP_FORMAT);
+            List<Reservation> newReservations = new ArrayList<>(selectedSeats.size());
             for (String seat : selectedSeats) {
                 // 創建一個新的 Reservation 對象，使用適當的參數 (uid為0,會在DAO中生成)
                 Reservation reservation = new Reservation(
@@ -176,19 +192,23 @@ public class ReservationService {
                 );
                 // 設置場次ID
                 reservation.setShowtimeUid(showtimeUid);
-                
-                // 使用事務內的方法添加訂票
-                int reservationId = reservationDAO.addReservationWithConnection(conn, reservation);
-                if (reservationId > 0) {
-                    reservationIds.add(reservationId);
-                } else {
+                newReservations.add(reservation);
+            }
+            List<Integer> createdIds = reservationDAO.addReservationsWithConnection(conn, newReservations);
+            for (Integer reservationId : createdIds) {
+                if (reservationId == null || reservationId <= 0) {
                     // 如果添加失敗，拋出異常
                     throw new SQLException("無法創建訂票記錄");
                 }
             }
+            reservationIds.addAll(createdIds);
             
             // 提交事務
             conn.commit();
+            seatOccupancy.markBooked(showtimeUid, selectedSeats);
+            seatEvents.publish(showtimeUid, SeatEventBus.Type.BOOKED, selectedSeats, memberUid);
+            availability.markDirty(showtimeUid);
+            seatHolds.releaseAll(showtimeUid, memberUid);
             return reservationIds;
             
         } catch (SeatUnavailableException | AgeRestrictionException | IllegalArgumentException e) {
@@ -217,6 +237,9 @@ public class ReservationService {
             } catch (SQLException e) {
                 e.printStackTrace();
             }
+            if (showtimeLock != null) {
+                showtimeLock.unlock();
+            }
         }
     }
 
@@ -258,25 +281,87 @@ public class ReservationService {
 
     /**
      * 獲取場次的已預訂座位
-     * 只考慮狀態為 CONFIRMED 的訂票
+     * 只考慮狀態為 CONFIRMED 的訂票，由座位點陣圖提供
      */
     public List<String> getBookedSeatsForShowtime(int showtimeUid) {
-        List<Reservation> reservations = reservationDAO.getReservationsByShowtime(showtimeUid);
-        return reservations.stream()
-                .filter(r -> "CONFIRMED".equals(r.getStatus())) // 只考慮確認狀態的訂票
-                .map(Reservation::getSeatNo)
-                .collect(Collectors.toList());
+        return seatOccupancy.getBookedSeats(showtimeUid);
+    }
+
+    /**
+     * 一次取得多個場次的已預訂座位數，供場次列表顯示剩餘座位，取代逐一載入各場次的座位
+     * @return 以場次 ID 為鍵的訂票數
+     */
+    public Map<Integer, Integer> getBookedSeatCounts(Collection<Integer> showtimeUids) {
+        return seatOccupancy.getBookedCounts(showtimeUids);
+    }
+
+    /**
+     * 檢查場次的某個座位是否已被預訂
+     */
+    public boolean isSeatBooked(int showtimeUid, String seatNo) {
+        return seatOccupancy.isBooked(showtimeUid, seatNo);
+    }
+
+    /**
+     * 選位時為會員暫時保留座位，並延長其在此場次的其他保留
+     * @return 是否保留成功；座位已售出或由其他會員保留時返回 false
+     */
+    public boolean holdSeat(int showtimeUid, int memberUid, String seatNo) {
+        return !seatOccupancy.isBooked(showtimeUid, seatNo) && seatHolds.hold(showtimeUid, memberUid, seatNo);
+    }
+
+    public void releaseSeatHold(int showtimeUid, int memberUid, String seatNo) {
+        seatHolds.release(showtimeUid, memberUid, seatNo);
+    }
+
+    /**
+     * 釋放會員在此場次的所有座位保留，例如關閉選位視窗而未確認時
+     */
+    public void releaseSeatHolds(int showtimeUid, int memberUid) {
+        seatHolds.releaseAll(showtimeUid, memberUid);
+    }
+
+    /**
+     * 取得場次中由其他會員保留的座位
+     */
+    public Set<String> getSeatsHeldByOthers(int showtimeUid, int memberUid) {
+        return seatHolds.getSeatsHeldByOthers(showtimeUid, memberUid);
     }
 
     public List<Reservation> listReservations() {
         return reservationDAO.getAllReservations();
     }
 
+    /**
+     * 分頁取得管理員訂單列表，每頁以一次 JOIN 查詢取得顯示所需的所有欄位
+     * @param status 只取此狀態的訂單，null 表示全部
+     * @param keyword 搜尋字串，null 表示不過濾
+     * @param after 上一頁的最後一筆，null 表示第一頁
+     */
+    public List<ReservationView> listReservationViewsPage(String status, String keyword, ReservationView after, int pageSize) {
+        return reservationDAO.getReservationViewsPage(status, keyword, after, pageSize);
+    }
+
     public List<Reservation> listReservationsByMember(int memberUid) {
         return reservationDAO.getReservationsByMemberId(memberUid);
     }
 
     public boolean cancelReservation(int reservationId, int memberUid) {
+        // 訂單所屬場次不會變動，可先在鎖外查出以決定要取得的場次鎖
+        Reservation reservation = reservationDAO.getReservationById(reservationId);
+        if (reservation == null) {
+            System.err.println("Cancellation failed: Reservation with ID " + reservationId + " not found.");
+            return false;
+        }
+        ShowtimeLockStripes.Handle showtimeLock = showtimeLocks.lock(reservation.getShowtimeUid());
+        try {
+            return cancelReservationLocked(reservationId, memberUid);
+        } finally {
+            showtimeLock.unlock();
+        }
+    }
+
+    private boolean cancelReservationLocked(int reservationId, int memberUid) {
         Connection conn = null;
         try {
             conn = DBUtil.getConnection();
@@ -305,63 +390,53 @@ public class ReservationService {
             }
 
             // 4. 檢查電影開始時間是否在30分鐘內
-            try {
-                // 獲取場次信息
-                Showtime showtime = showtimeDAO.getShowtimeById(reservation.getShowtimeUid());
-                if (showtime == null) {
-                    System.err.println("Cancellation failed: Showtime not found for reservation ID " + reservationId);
-                    conn.rollback();
-                    return false;
-                }
+            // 獲取場次信息
+            Showtime showtime = showtimeDAO.getShowtimeById(reservation.getShowtimeUid());
+            if (showtime == null) {
+                System.err.println("Cancellation failed: Showtime not found for reservation ID " + reservationId);
+                conn.rollback();
+                return false;
+            }
 
-                // 解析電影開始時間
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
-                Date showtimeDate = dateFormat.parse(showtime.getStartTime());
-                Date currentTime = new Date();
-
-                // 計算時間差（毫秒）
-                long differenceInMillis = showtimeDate.getTime() - currentTime.getTime();
-                long differenceInMinutes = differenceInMillis / (60 * 1000);
-
-                // 如果在電影開始前30分鐘或之後，拒絕取消訂票
-                if (differenceInMinutes <= 30) {
-                    if (differenceInMinutes >= 0) {
-                        // 在電影開始前30分鐘內(含)
-                        System.err.println("Cancellation failed: Cannot cancel ticket within 30 minutes before showtime.");
-                    } else {
-                        // 電影已經開始後
-                        System.err.println("Cancellation failed: Cannot cancel ticket after showtime has started.");
-                    }
-                    conn.rollback();
-                    return false;
-                }
+            // 以 epoch 秒計算距離開演的分鐘數，不需解析時間字串
+            long differenceInMinutes = showtime.getMinutesUntilStart();
 
-                // 更新訂票狀態為已取消
-                boolean updateSuccess = reservationDAO.updateReservationStatusWithConnection(conn, reservationId, "CANCELLED");
-                if (!updateSuccess) {
-                    System.err.println("Cancellation failed: Could not update reservation status.");
-                    conn.rollback();
-                    return false;
+            // 如果在電影開始前30分鐘或之後，拒絕取消訂票
+            if (differenceInMinutes <= 30) {
+                if (differenceInMinutes >= 0) {
+                    // 在電影開始前30分鐘內(含)
+                    System.err.println("Cancellation failed: Cannot cancel ticket within 30 minutes before showtime.");
+                } else {
+                    // 電影已經開始後
+                    System.err.println("Cancellation failed: Cannot cancel ticket after showtime has started.");
                 }
+                conn.rollback();
+                return false;
+            }
 
-                // 增加場次的可用座位數量
-                boolean seatsIncreased = showtimeDAO.increaseAvailableSeatsWithConnection(conn, showtime.getUid(), reservation.getNumTickets());
-                if (!seatsIncreased) {
-                    System.err.println("Cancellation failed: Could not update available seats.");
-                    conn.rollback();
-                    return false;
-                }
+            // 更新訂票狀態為已取消
+            boolean updateSuccess = reservationDAO.updateReservationStatusWithConnection(conn, reservationId, "CANCELLED");
+            if (!updateSuccess) {
+                System.err.println("Cancellation failed: Could not update reservation status.");
+                conn.rollback();
+                return false;
+            }
 
-                // 提交事務
-                conn.commit();
-                System.out.println("Reservation ID " + reservationId + " has been successfully cancelled.");
-                return true;
-                
-            } catch (ParseException e) {
-                System.err.println("Cancellation failed: Error parsing showtime date.");
+            // 增加場次的可用座位數量
+            boolean seatsIncreased = showtimeDAO.increaseAvailableSeatsWithConnection(conn, showtime.getUid(), reservation.getNumTickets());
+            if (!seatsIncreased) {
+                System.err.println("Cancellation failed: Could not update available seats.");
                 conn.rollback();
                 return false;
             }
+
+            // 提交事務
+            conn.commit();
+            seatOccupancy.markReleased(reservation.getShowtimeUid(), reservation.getSeatNumbers());
+            seatEvents.publish(reservation.getShowtimeUid(), SeatEventBus.Type.RELEASED, reservation.getSeatNumbers(), memberUid);
+            availability.markDirty(reservation.getShowtimeUid());
+            System.out.println("Reservation ID " + reservationId + " has been successfully cancelled.");
+            return true;
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -390,6 +465,20 @@ public class ReservationService {
      * @return 是否更新成功
      */
     public boolean setReservationStatus(int reservationId, String status) {
+        Reservation reservation = reservationDAO.getReservationById(reservationId);
+        if (reservation == null) {
+            System.err.println("Status update failed: Reservation with ID " + reservationId + " not found.");
+            return false;
+        }
+        ShowtimeLockStripes.Handle showtimeLock = showtimeLocks.lock(reservation.getShowtimeUid());
+        try {
+            return setReservationStatusLocked(reservationId, status);
+        } finally {
+            showtimeLock.unlock();
+        }
+    }
+
+    private boolean setReservationStatusLocked(int reservationId, String status) {
         Connection conn = null;
         try {
             conn = DBUtil.getConnection();
@@ -417,6 +506,30 @@ public class ReservationService {
                         return false;
                     }
                 }
+            } else if ("CONFIRMED".equalsIgnoreCase(status) && "CANCELLED".equalsIgnoreCase(reservation.getStatus())) {
+                // 已取消的訂單改回確認，需重新佔用座位；取消後座位可能已由他人訂購或正被保留
+                int showtimeUid = reservation.getShowtimeUid();
+                Set<String> taken = reservationDAO.getConfirmedSeatNosWithConnection(conn, showtimeUid, reservation.getSeatNumbers());
+                for (String seat : reservation.getSeatNumbers()) {
+                    if (seatHolds.isHeldByOther(showtimeUid, reservation.getMemberUid(), seat)) {
+                        taken.add(seat);
+                    }
+                }
+                if (!taken.isEmpty()) {
+                    System.err.println("Status update failed: Seats " + taken + " are no longer available.");
+                    conn.rollback();
+                    return false;
+                }
+                Showtime showtime = showtimeDAO.getShowtimeById(showtimeUid);
+                if (showtime != null) {
+                    // 減少場次的可用座位數量
+                    boolean seatsDecreased = showtimeDAO.decreaseAvailableSeatsWithConnection(conn, showtime.getUid(), reservation.getNumTickets());
+                    if (!seatsDecreased) {
+                        System.err.println("Status update failed: Not enough available seats.");
+                        conn.rollback();
+                        return false;
+                    }
+                }
             }
             
             // 更新訂單狀態
@@ -429,6 +542,19 @@ public class ReservationService {
             
             // 提交事務
             conn.commit();
+            // 狀態未改變時不更新座位快取，避免釋放已由其他訂單佔用的座位
+            if (status.equalsIgnoreCase(reservation.getStatus())) {
+                System.out.println("Reservation ID " + reservationId + " is already " + status);
+                return true;
+            }
+            if ("CANCELLED".equalsIgnoreCase(status)) {
+                seatOccupancy.markReleased(reservation.getShowtimeUid(), reservation.getSeatNumbers());
+                seatEvents.publish(reservation.getShowtimeUid(), SeatEventBus.Type.RELEASED, reservation.getSeatNumbers(), -1);
+            } else if ("CONFIRMED".equalsIgnoreCase(status)) {
+                seatOccupancy.markBooked(reservation.getShowtimeUid(), reservation.getSeatNumbers());
+                seatEvents.publish(reservation.getShowtimeUid(), SeatEventBus.Type.BOOKED, reservation.getSeatNumbers(), -1);
+            }
+            availability.markDirty(reservation.getShowtimeUid());
             System.out.println("Reservation ID " + reservationId + " status has been successfully updated to " + status);
             return true;
         } catch (SQLException e) {
@@ -451,6 +577,20 @@ public class ReservationService {
         }
     }
 
+    /**
+     * 場次鎖的爭用統計（取得次數、需等待次數與等待時間）
+     */
+    public String getShowtimeLockStats() {
+        return showtimeLocks.toString();
+    }
+
+    /**
+     * 可用座位核對統計（核對次數、發現並修正的不一致場次與座位數）
+     */
+    public String getAvailabilityStats() {
+        return availability.toString();
+    }
+
     // 新增評論相關方法
     // 確保評論能正常提交並讓所有使用者都能看到
     public void addReview(int movieId, String userEmail, String reviewText) throws SQLException {
@@ -469,24 +609,16 @@ public class ReservationService {
         }
     }
 
-    // 增加詳細的例外處理和日誌
-    public List<String[]> getReviewsByMovieId(int movieId) throws SQLException {
-        List<String[]> reviews = new ArrayList<>();
-        String sql = "SELECT user_email, review_text FROM reviews WHERE movie_id = ? ORDER BY id ASC"; // 確保評論按順序顯示
-        try (Connection conn = DBUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, movieId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    reviews.add(new String[]{rs.getString("user_email"), rs.getString("review_text")});
-                }
-            }
+    /**
+     * 分頁載入電影評論
+     * @param afterId 上一頁最後一筆評論的 id，第一頁傳入 0
+     */
+    public List<Review> getReviewsPage(int movieId, int afterId, int pageSize) throws SQLException {
+        try {
+            return reviewDAO.getReviewsPage(movieId, afterId, pageSize);
         } catch (SQLException e) {
             System.err.println("SQL錯誤: " + e.getMessage());
             throw new SQLException("無法載入評論，請檢查資料庫連線或查詢語法。", e);
-        } catch (Exception e) {
-            System.err.println("未知錯誤: " + e.getMessage());
-            throw new RuntimeException("載入評論時發生未知錯誤。", e);
         }
-        return reviews;
     }
-}
\ No newline at end of file
+}
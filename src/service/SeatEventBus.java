@@ -0,0 +1,126 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 行程內的座位事件匯流排
+ * 訂票 / 取消提交後與座位保留變動時發布事件，開啟中的座位圖依場次訂閱，不需輪詢資料庫即可保持座位狀態最新
+ * 事件在發布者的執行緒上同步通知，訂閱者應只記錄事件並盡快返回（例如排入佇列後交由 EDT 合併處理）
+ */
+public class SeatEventBus {
+    private static final SeatEventBus INSTANCE = new SeatEventBus();
+
+    /**
+     * 座位事件類型
+     */
+    public enum Type {
+        BOOKED,   // 訂票已提交
+        RELEASED, // 訂票已取消
+        HELD,     // 會員選位保留
+        UNHELD    // 保留釋放或到期
+    }
+
+    /**
+     * 單一場次中一組座位的狀態變化
+     */
+    public static class SeatEvent {
+        private final int showtimeUid;
+        private final Type type;
+        private final List<String> seatNos;
+        private final int memberUid;
+
+        public SeatEvent(int showtimeUid, Type type, Collection<String> seatNos, int memberUid) {
+            this.showtimeUid = showtimeUid;
+            this.type = type;
+            this.seatNos = Collections.unmodifiableList(new ArrayList<>(seatNos));
+            this.memberUid = memberUid;
+        }
+
+        public int getShowtimeUid() {
+            return showtimeUid;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public List<String> getSeatNos() {
+            return seatNos;
+        }
+
+        /**
+         * 觸發事件的會員；訂票 / 取消由管理員更改狀態時可能為 -1
+         */
+        public int getMemberUid() {
+            return memberUid;
+        }
+
+        @Override
+        public String toString() {
+            return "SeatEvent{showtime=" + showtimeUid + ", " + type + " " + seatNos + ", member=" + memberUid + "}";
+        }
+    }
+
+    /**
+     * 座位事件的訂閱者
+     */
+    public interface Listener {
+        void onSeatEvent(SeatEvent event);
+    }
+
+    private final ConcurrentHashMap<Integer, CopyOnWriteArrayList<Listener>> listenersByShowtime = new ConcurrentHashMap<>();
+
+    private SeatEventBus() {
+    }
+
+    public static SeatEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 訂閱指定場次的座位事件
+     */
+    public void subscribe(int showtimeUid, Listener listener) {
+        listenersByShowtime.computeIfAbsent(showtimeUid, uid -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void unsubscribe(int showtimeUid, Listener listener) {
+        listenersByShowtime.computeIfPresent(showtimeUid, (uid, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * 發布座位事件；沒有座位或沒有訂閱者時不做任何事
+     */
+    public void publish(int showtimeUid, Type type, Collection<String> seatNos, int memberUid) {
+        List<Listener> listeners = listenersByShowtime.get(showtimeUid);
+        if (listeners == null || seatNos == null || seatNos.isEmpty()) {
+            return;
+        }
+        SeatEvent event = new SeatEvent(showtimeUid, type, seatNos, memberUid);
+        for (Listener listener : listeners) {
+            try {
+                listener.onSeatEvent(event);
+            } catch (RuntimeException e) {
+                // 單一訂閱者的錯誤不影響發布者與其他訂閱者
+                System.err.println("座位事件處理失敗: " + event + "，錯誤: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 目前的訂閱者數量，供除錯使用
+     */
+    public int getListenerCount(int showtimeUid) {
+        List<Listener> listeners = listenersByShowtime.get(showtimeUid);
+        return listeners != null ? listeners.size() : 0;
+    }
+}
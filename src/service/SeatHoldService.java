@@ -0,0 +1,218 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 選位期間的暫時座位保留
+ * 會員在座位圖選取座位時先保留，其他會員無法選取或訂購；保留到期後由背景執行緒自動釋放
+ */
+public class SeatHoldService {
+    // 保留時間（秒），可用 -Dcinema.booking.holdTtlSeconds 調整
+    private static final long HOLD_TTL_NANOS = TimeUnit.SECONDS.toNanos(
+            Long.getLong("cinema.booking.holdTtlSeconds", 300L));
+
+    private static final SeatHoldService INSTANCE = new SeatHoldService();
+
+    private final ConcurrentHashMap<Integer, Map<String, Hold>> holdsByShowtime = new ConcurrentHashMap<>();
+    private final DelayQueue<Hold> expiryQueue = new DelayQueue<>();
+    private final SeatEventBus seatEvents = SeatEventBus.getInstance();
+
+    private SeatHoldService() {
+        Thread reaper = new Thread(this::reapExpiredHolds, "seat-hold-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    public static SeatHoldService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 為會員保留座位，並重新計時該會員在此場次的所有保留
+     * 重新計時只更新既有保留的到期時間，每個保留在到期佇列中始終只有一筆
+     * @return 是否保留成功；座位已被其他會員保留時返回 false
+     */
+    public boolean hold(int showtimeUid, int memberUid, String seatNo) {
+        Map<String, Hold> holds = holdsByShowtime.computeIfAbsent(showtimeUid, uid -> new ConcurrentHashMap<>());
+        long expiresAt = System.nanoTime() + HOLD_TTL_NANOS;
+        Hold fresh = new Hold(showtimeUid, seatNo, memberUid, expiresAt);
+        Hold result = holds.compute(seatNo, (seat, current) -> {
+            if (current == null || current.isExpired()) {
+                return fresh;
+            }
+            if (current.memberUid == memberUid) {
+                current.expiresAtNanos = expiresAt;
+            }
+            return current;
+        });
+        if (result.memberUid != memberUid) {
+            return false;
+        }
+        if (result == fresh) {
+            expiryQueue.add(fresh);
+        }
+        for (String seat : holds.keySet()) {
+            if (!seat.equals(seatNo)) {
+                // 在 compute 中更新，避免與背景執行緒的到期判斷交錯
+                holds.computeIfPresent(seat, (key, current) -> {
+                    if (current.memberUid == memberUid && !current.isExpired()) {
+                        current.expiresAtNanos = expiresAt;
+                    }
+                    return current;
+                });
+            }
+        }
+        seatEvents.publish(showtimeUid, SeatEventBus.Type.HELD, Collections.singletonList(seatNo), memberUid);
+        return true;
+    }
+
+    /**
+     * 釋放會員保留的單一座位
+     */
+    public void release(int showtimeUid, int memberUid, String seatNo) {
+        Map<String, Hold> holds = holdsByShowtime.get(showtimeUid);
+        if (holds == null) {
+            return;
+        }
+        Hold current = holds.get(seatNo);
+        if (current != null && current.memberUid == memberUid && holds.remove(seatNo, current)) {
+            seatEvents.publish(showtimeUid, SeatEventBus.Type.UNHELD, Collections.singletonList(seatNo), memberUid);
+        }
+    }
+
+    /**
+     * 釋放會員在此場次的所有保留
+     */
+    public void releaseAll(int showtimeUid, int memberUid) {
+        Map<String, Hold> holds = holdsByShowtime.get(showtimeUid);
+        if (holds == null) {
+            return;
+        }
+        List<String> released = new ArrayList<>();
+        for (Iterator<Hold> it = holds.values().iterator(); it.hasNext(); ) {
+            Hold hold = it.next();
+            if (hold.memberUid == memberUid) {
+                it.remove();
+                released.add(hold.seatNo);
+            }
+        }
+        seatEvents.publish(showtimeUid, SeatEventBus.Type.UNHELD, released, memberUid);
+    }
+
+    /**
+     * 清除場次的所有保留，場次刪除或資料庫清空時使用
+     */
+    public void clear(int showtimeUid) {
+        holdsByShowtime.remove(showtimeUid);
+    }
+
+    public void clearAll() {
+        holdsByShowtime.clear();
+    }
+
+    /**
+     * 檢查座位是否正由其他會員保留
+     */
+    public boolean isHeldByOther(int showtimeUid, int memberUid, String seatNo) {
+        Map<String, Hold> holds = holdsByShowtime.get(showtimeUid);
+        Hold hold = holds != null ? holds.get(seatNo) : null;
+        return hold != null && hold.memberUid != memberUid && !hold.isExpired();
+    }
+
+    /**
+     * 取得場次中由其他會員保留的座位
+     */
+    public Set<String> getSeatsHeldByOthers(int showtimeUid, int memberUid) {
+        Set<String> seats = new HashSet<>();
+        Map<String, Hold> holds = holdsByShowtime.get(showtimeUid);
+        if (holds != null) {
+            for (Hold hold : holds.values()) {
+                if (hold.memberUid != memberUid && !hold.isExpired()) {
+                    seats.add(hold.seatNo);
+                }
+            }
+        }
+        return seats;
+    }
+
+    public long getHoldTtlSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(HOLD_TTL_NANOS);
+    }
+
+    /**
+     * 背景執行緒：取出到期的保留並從表中移除
+     * 保留可能已被釋放、由新的保留取代或重新計時：前兩者直接略過，重新計時的保留依新的到期時間放回佇列
+     * 場次的保留表即使已空也不移除，避免 hold() 剛取得的保留表被移出後寫入的保留遺失；場次刪除時由 clear 移除
+     */
+    private void reapExpiredHolds() {
+        while (true) {
+            try {
+                Hold expired = expiryQueue.take();
+                Map<String, Hold> holds = holdsByShowtime.get(expired.showtimeUid);
+                if (holds == null || holds.get(expired.seatNo) != expired) {
+                    continue;
+                }
+                boolean[] removed = new boolean[1];
+                holds.computeIfPresent(expired.seatNo, (seat, current) -> {
+                    if (current == expired && current.isExpired()) {
+                        removed[0] = true;
+                        return null;
+                    }
+                    return current;
+                });
+                if (removed[0]) {
+                    seatEvents.publish(expired.showtimeUid, SeatEventBus.Type.UNHELD,
+                            Collections.singletonList(expired.seatNo), expired.memberUid);
+                } else if (holds.get(expired.seatNo) == expired) {
+                    expired.queuedUntilNanos = expired.expiresAtNanos;
+                    expiryQueue.add(expired);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static class Hold implements Delayed {
+        private final int showtimeUid;
+        private final String seatNo;
+        private final int memberUid;
+        // 重新計時會更新；到期佇列的排序依 queuedUntilNanos，只在不在佇列中時才更新
+        private volatile long expiresAtNanos;
+        private volatile long queuedUntilNanos;
+
+        Hold(int showtimeUid, String seatNo, int memberUid, long expiresAtNanos) {
+            this.showtimeUid = showtimeUid;
+            this.seatNo = seatNo;
+            this.memberUid = memberUid;
+            this.expiresAtNanos = expiresAtNanos;
+            this.queuedUntilNanos = expiresAtNanos;
+        }
+
+        boolean isExpired() {
+            return expiresAtNanos - System.nanoTime() <= 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(queuedUntilNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package service;
+
+import dao.ReservationDAO;
+import dao.ShowtimeDAO;
+import model.SeatLayout;
+import model.Showtime;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 每個場次的座位佔用點陣圖，供訂票檢查與座位圖顯示使用
+ * 首次查詢某場次時才從資料庫載入，之後由訂票 / 取消流程同步更新
+ */
+public class SeatOccupancyCache {
+    private static final SeatOccupancyCache INSTANCE = new SeatOccupancyCache();
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final TheaterService theaterService = new TheaterService();
+
+    private final ConcurrentHashMap<Integer, ShowtimeSeats> occupancy = new ConcurrentHashMap<>();
+
+    private SeatOccupancyCache() {
+    }
+
+    public static SeatOccupancyCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 檢查座位是否已被預訂；無法載入場次資料時返回 false，交由資料庫檢查
+     */
+    public boolean isBooked(int showtimeUid, String seatNo) {
+        ShowtimeSeats seats = seatsFor(showtimeUid);
+        return seats != null && seats.isBooked(seatNo);
+    }
+
+    /**
+     * 取得場次已預訂的座位
+     */
+    public List<String> getBookedSeats(int showtimeUid) {
+        ShowtimeSeats seats = seatsFor(showtimeUid);
+        return seats != null ? seats.bookedSeats() : new ArrayList<>();
+    }
+
+    /**
+     * 取得場次已預訂的座位數
+     */
+    public int getBookedCount(int showtimeUid) {
+        ShowtimeSeats seats = seatsFor(showtimeUid);
+        return seats != null ? seats.count() : 0;
+    }
+
+    /**
+     * 一次取得多個場次的已預訂座位數，供場次列表顯示剩餘座位
+     * 已載入點陣圖的場次直接使用其計數，其餘場次以一次 GROUP BY 查詢統計，不載入點陣圖
+     * @return 以場次 ID 為鍵的訂票數；資料庫查詢失敗時只包含已載入點陣圖的場次
+     */
+    public Map<Integer, Integer> getBookedCounts(Collection<Integer> showtimeUids) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer uid : showtimeUids) {
+            ShowtimeSeats seats = occupancy.get(uid);
+            if (seats != null) {
+                counts.put(uid, seats.count());
+            } else {
+                missing.add(uid);
+            }
+        }
+        if (!missing.isEmpty()) {
+            try {
+                Map<Integer, Integer> queried = reservationDAO.countBookedSeatsByShowtimes(missing);
+                for (Integer uid : missing) {
+                    counts.put(uid, queried.getOrDefault(uid, 0));
+                }
+            } catch (SQLException e) {
+                System.err.println("無法統計場次訂票數: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 訂票交易提交後標記座位為已預訂（尚未載入的場次不處理，下次查詢時會從資料庫讀取）
+     */
+    public void markBooked(int showtimeUid, Collection<String> seatNos) {
+        // computeIfPresent 會等待進行中的載入完成，避免載入結果覆蓋此次更新
+        occupancy.computeIfPresent(showtimeUid, (uid, seats) -> {
+            seats.setAll(seatNos, true);
+            return seats;
+        });
+    }
+
+    /**
+     * 取消訂票提交後釋放座位
+     */
+    public void markReleased(int showtimeUid, Collection<String> seatNos) {
+        occupancy.computeIfPresent(showtimeUid, (uid, seats) -> {
+            seats.setAll(seatNos, false);
+            return seats;
+        });
+    }
+
+    public void invalidate(int showtimeUid) {
+        occupancy.remove(showtimeUid);
+    }
+
+    public void invalidateAll() {
+        occupancy.clear();
+    }
+
+    private ShowtimeSeats seatsFor(int showtimeUid) {
+        try {
+            return occupancy.computeIfAbsent(showtimeUid, this::load);
+        } catch (IllegalStateException e) {
+            System.err.println("無法載入場次座位資料，場次ID: " + showtimeUid + "，錯誤: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ShowtimeSeats load(int showtimeUid) {
+        try {
+            ShowtimeSeats seats = new ShowtimeSeats(layoutForShowtime(showtimeUid));
+            seats.setAll(reservationDAO.getBookedSeatNosByShowtime(showtimeUid), true);
+            return seats;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private SeatLayout layoutForShowtime(int showtimeUid) {
+        Showtime showtime = showtimeDAO.getShowtimeById(showtimeUid);
+        return showtime != null ? theaterService.getSeatLayout(showtime.getTheaterUid()) : null;
+    }
+
+    /**
+     * 單一場次的佔用狀態：配置內的座位以位元表示，配置外的座位另存於集合
+     */
+    private static class ShowtimeSeats {
+        private final SeatLayout layout;
+        private final BitSet booked;
+        private final Set<String> bookedOutsideLayout = new HashSet<>();
+
+        ShowtimeSeats(SeatLayout layout) {
+            this.layout = layout;
+            this.booked = new BitSet(layout != null ? layout.size() : 0);
+        }
+
+        synchronized boolean isBooked(String seatNo) {
+            int index = layout != null ? layout.indexOf(seatNo) : -1;
+            return index >= 0 ? booked.get(index) : bookedOutsideLayout.contains(seatNo);
+        }
+
+        synchronized void setAll(Collection<String> seatNos, boolean value) {
+            for (String seatNo : seatNos) {
+                if (seatNo == null) {
+                    continue;
+                }
+                int index = layout != null ? layout.indexOf(seatNo) : -1;
+                if (index >= 0) {
+                    booked.set(index, value);
+                } else if (value) {
+                    bookedOutsideLayout.add(seatNo);
+                } else {
+                    bookedOutsideLayout.remove(seatNo);
+                }
+            }
+        }
+
+        synchronized List<String> bookedSeats() {
+            List<String> seats = new ArrayList<>(booked.cardinality() + bookedOutsideLayout.size());
+            for (int i = booked.nextSetBit(0); i >= 0; i = booked.nextSetBit(i + 1)) {
+                seats.add(layout.labelAt(i));
+            }
+            seats.addAll(bookedOutsideLayout);
+            return seats;
+        }
+
+        synchronized int count() {
+            return booked.cardinality() + bookedOutsideLayout.size();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 以場次 ID 分段的行程內鎖
+ * 同一場次的訂票 / 取消依序執行，不同場次則可並行；SQLite 不支援 SELECT ... FOR UPDATE，
+ * 因此以此取代資料庫的行鎖
+ */
+public class ShowtimeLockStripes {
+    // 分段數量須為 2 的次方，可用 -Dcinema.booking.lockStripes 調整
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Integer.getInteger("cinema.booking.lockStripes", 64)));
+
+    private static final ShowtimeLockStripes INSTANCE = new ShowtimeLockStripes(STRIPES);
+
+    private final ReentrantLock[] locks;
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong contended = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private ShowtimeLockStripes(int stripes) {
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public static ShowtimeLockStripes getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 取得指定場次的鎖，需在 finally 中呼叫 Handle.unlock() 以確保釋放
+     */
+    public Handle lock(int showtimeUid) {
+        ReentrantLock lock = stripeFor(showtimeUid);
+        acquisitions.incrementAndGet();
+        if (!lock.tryLock()) {
+            contended.incrementAndGet();
+            long start = System.nanoTime();
+            lock.lock();
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        return new Handle(lock);
+    }
+
+    private ReentrantLock stripeFor(int showtimeUid) {
+        int h = Integer.hashCode(showtimeUid);
+        h ^= (h >>> 16); // 打散連續的場次 ID
+        return locks[h & (locks.length - 1)];
+    }
+
+    public long getAcquisitions() { return acquisitions.get(); }
+
+    public long getContendedAcquisitions() { return contended.get(); }
+
+    public long getTotalWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()); }
+
+    public long getMaxWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()); }
+
+    @Override
+    public String toString() {
+        return String.format("ShowtimeLocks [stripes=%d, acquisitions=%d, contended=%d, totalWait=%d ms, maxWait=%d ms]",
+                locks.length, getAcquisitions(), getContendedAcquisitions(), getTotalWaitMillis(), getMaxWaitMillis());
+    }
+
+    /**
+     * 已取得的鎖，由取得鎖的執行緒呼叫 unlock() 釋放；重複呼叫不會再次釋放
+     */
+    public static class Handle {
+        private final ReentrantLock lock;
+        private boolean released; // 只由持有鎖的執行緒存取
+
+        private Handle(ReentrantLock lock) {
+            this.lock = lock;
+        }
+
+        public void unlock() {
+            if (!released) {
+                released = true;
+                lock.unlock();
+            }
+        }
+    }
+}
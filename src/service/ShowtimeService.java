@@ -2,21 +2,34 @@ package service;
 
 import dao.ShowtimeDAO;
 import model.Showtime;
+import util.TimeUtil;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
 
 public class ShowtimeService {
     private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
     private final MovieService movieService = new MovieService();
+    private final TheaterService theaterService = new TheaterService();
 
     public void addShowtime(int movieUid, int theaterUid, String startTime) {
         // 計算結束時間 = 開始時間 + 影片片長
         int duration = movieService.getMovieById(movieUid)
                             .orElseThrow(() -> new IllegalArgumentException("找不到電影ID: " + movieUid))
                             .getDuration();
+        // 影廳資料取自 TheaterService 快照，不需查詢資料庫
+        int totalSeats = theaterService.getTheaterById(theaterUid)
+                            .orElseThrow(() -> new IllegalArgumentException("找不到影廳ID: " + theaterUid))
+                            .getTotalSeats();
         try {
-            java.time.format.DateTimeFormatter fmt = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            java.time.format.DateTimeFormatter fmt = TimeUtil.SHOWTIME_FORMAT;
             java.time.LocalDateTime st = java.time.LocalDateTime.parse(startTime, fmt);
             String endTime = st.plusMinutes(duration).format(fmt);
             // 檢查影廳及同電影時段是否有衝突
@@ -27,7 +40,7 @@ public class ShowtimeService {
             } catch (SQLException e) {
                 throw new RuntimeException("檢查衝突失敗", e);
             }
-            Showtime showtime = new Showtime(0, movieUid, theaterUid, startTime, endTime);
+            Showtime showtime = new Showtime(0, movieUid, theaterUid, startTime, endTime, totalSeats);
             int id = showtimeDAO.addShowtime(showtime);
             if (id < 0) {
                 throw new IllegalArgumentException("新增場次失敗(可能衝突或其他問題)");
@@ -71,7 +84,7 @@ public class ShowtimeService {
                             .orElseThrow(() -> new IllegalArgumentException("找不到電影ID: " + showtime.getMovieUid()))
                             .getDuration();
         try {
-            java.time.format.DateTimeFormatter fmt = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            java.time.format.DateTimeFormatter fmt = TimeUtil.SHOWTIME_FORMAT;
             java.time.LocalDateTime st = java.time.LocalDateTime.parse(newStartTime, fmt);
             String newEnd = st.plusMinutes(duration).format(fmt);
             // 檢查影廳及同電影時段是否有衝突
@@ -96,6 +109,154 @@ public class ShowtimeService {
      * @return 刪除是否成功
      */
     public boolean deleteShowtime(int showtimeId) {
-        return showtimeDAO.deleteShowtime(showtimeId);
+        boolean deleted = showtimeDAO.deleteShowtime(showtimeId);
+        if (deleted) {
+            SeatOccupancyCache.getInstance().invalidate(showtimeId);
+            SeatHoldService.getInstance().clear(showtimeId);
+        }
+        return deleted;
+    }
+
+    /**
+     * 批次產生一段期間的排程，並以單一事務寫入
+     * 每天依序為各影廳填入時段：電影輪流排入，同影廳前後場次之間保留清潔時間，
+     * 若時段仍被上一場佔用則順延；與既有場次或本次計畫衝突的時段會略過
+     * @param movieUids 參與排程的電影（依序輪播）
+     * @param theaterUids 參與排程的影廳
+     * @param fromDate 開始日期（含）
+     * @param toDate 結束日期（含）
+     * @param dailySlots 每天的預定開演時間
+     * @param cleaningBufferMinutes 同影廳兩場之間的清潔時間（分鐘）
+     * @return 排程結果與寫入速度
+     */
+    public ScheduleResult generateSchedule(List<Integer> movieUids, List<Integer> theaterUids, LocalDate fromDate,
+                                           LocalDate toDate, List<LocalTime> dailySlots, int cleaningBufferMinutes) {
+        if (movieUids.isEmpty() || theaterUids.isEmpty() || dailySlots.isEmpty()) {
+            throw new IllegalArgumentException("電影、影廳與時段皆不可為空");
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("結束日期不可早於開始日期");
+        }
+        if (cleaningBufferMinutes < 0) {
+            throw new IllegalArgumentException("清潔時間不可為負數");
+        }
+        long begin = System.nanoTime();
+        long buffer = cleaningBufferMinutes * 60L;
+
+        // 片長只查詢一次，影廳座位數取自 TheaterService 快照
+        Map<Integer, Long> durations = new HashMap<>();
+        for (int movieUid : movieUids) {
+            int minutes = movieService.getMovieById(movieUid)
+                    .orElseThrow(() -> new IllegalArgumentException("找不到電影ID: " + movieUid))
+                    .getDuration();
+            durations.put(movieUid, minutes * 60L);
+        }
+        Map<Integer, Integer> seatsByTheater = new HashMap<>();
+        for (int theaterUid : theaterUids) {
+            int seats = theaterService.getTheaterById(theaterUid)
+                    .orElseThrow(() -> new IllegalArgumentException("找不到影廳ID: " + theaterUid))
+                    .getTotalSeats();
+            seatsByTheater.put(theaterUid, seats);
+        }
+        List<LocalTime> slots = new ArrayList<>(dailySlots);
+        Collections.sort(slots);
+
+        Map<Integer, Long> theaterFreeAt = new HashMap<>();
+        Map<Integer, TreeMap<Long, Long>> plannedByMovie = new HashMap<>();
+        List<Showtime> plan = new ArrayList<>();
+        int rotation = 0;
+        int skipped = 0;
+
+        try {
+            for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+                long nextDay = TimeUtil.toEpoch(date.plusDays(1).atStartOfDay());
+                for (int theaterUid : theaterUids) {
+                    for (LocalTime slot : slots) {
+                        long start = Math.max(TimeUtil.toEpoch(date.atTime(slot)),
+                                theaterFreeAt.getOrDefault(theaterUid, Long.MIN_VALUE));
+                        if (start >= nextDay) {
+                            skipped++; // 順延後已跨日，放棄此時段
+                            continue;
+                        }
+                        int placed = -1;
+                        for (int k = 0; k < movieUids.size() && placed < 0; k++) {
+                            int candidate = (rotation + k) % movieUids.size();
+                            int movieUid = movieUids.get(candidate);
+                            long end = start + durations.get(movieUid);
+                            if (overlapsPlan(plannedByMovie.get(movieUid), start, end)
+                                    || showtimeDAO.hasMovieConflictAt(movieUid, start, end)
+                                    || showtimeDAO.hasTheaterConflictAt(theaterUid, start - buffer, end + buffer)) {
+                                continue;
+                            }
+                            Showtime showtime = new Showtime(0, movieUid, theaterUid,
+                                    TimeUtil.formatShowtime(start), TimeUtil.formatShowtime(end),
+                                    seatsByTheater.get(theaterUid));
+                            showtime.setEpochs(start, end);
+                            plan.add(showtime);
+                            plannedByMovie.computeIfAbsent(movieUid, uid -> new TreeMap<>()).put(start, end);
+                            theaterFreeAt.put(theaterUid, end + buffer);
+                            placed = candidate;
+                        }
+                        if (placed < 0) {
+                            skipped++;
+                        } else {
+                            rotation = (placed + 1) % movieUids.size();
+                        }
+                    }
+                }
+            }
+            List<Integer> ids = showtimeDAO.addShowtimes(plan);
+            return new ScheduleResult(ids, skipped, System.nanoTime() - begin);
+        } catch (SQLException e) {
+            throw new RuntimeException("批次排程寫入失敗，已全部回滾", e);
+        }
+    }
+
+    /**
+     * 本次計畫中同一電影是否已有重疊的場次
+     */
+    private static boolean overlapsPlan(TreeMap<Long, Long> planned, long start, long end) {
+        if (planned == null) {
+            return false;
+        }
+        Map.Entry<Long, Long> before = planned.floorEntry(start);
+        if (before != null && before.getValue() > start) {
+            return true;
+        }
+        Long after = planned.ceilingKey(start);
+        return after != null && after < end;
+    }
+
+    /**
+     * 批次排程結果
+     */
+    public static class ScheduleResult {
+        private final List<Integer> showtimeIds;
+        private final int skippedSlots;
+        private final long elapsedNanos;
+
+        ScheduleResult(List<Integer> showtimeIds, int skippedSlots, long elapsedNanos) {
+            this.showtimeIds = showtimeIds;
+            this.skippedSlots = skippedSlots;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<Integer> getShowtimeIds() { return showtimeIds; }
+        public int getCreatedCount() { return showtimeIds.size(); }
+        public int getSkippedSlots() { return skippedSlots; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        /**
+         * 每秒排入的場次數
+         */
+        public double getShowtimesPerSecond() {
+            return elapsedNanos == 0 ? 0 : showtimeIds.size() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Schedule [created=%d, skipped=%d, elapsed=%d ms, %.1f showtimes/sec]",
+                    getCreatedCount(), skippedSlots, getElapsedMillis(), getShowtimesPerSecond());
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,39 @@
 package service;
 
 import dao.TheaterDAO;
+import model.SeatLayout;
 import model.Theater;
+import util.JsonDataLoader;
+import util.SeatLayoutFile;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * 影廳資料與座位配置的唯讀快照
+ * 影廳幾乎不會變動，首次使用時一次載入所有影廳並解析座位配置，之後的查詢都不再存取資料庫；
+ * 匯入影廳或重建資料庫時以新快照整批替換，讀取端不會看到一半更新的狀態
+ * 座位配置依影廳類型對應；沒有專屬配置的影廳（例如預設的 Hall A / Hall B）依 isBigRoom 沿用大廳或小廳的配置
+ */
 public class TheaterService {
+    public static final String BIG_ROOM_TYPE = "大廳";
+    public static final String SMALL_ROOM_TYPE = "小廳";
+    // 影廳清單檔，列出各影廳類型的座位檔
+    public static final String DEFAULT_THEATER_MANIFEST = "data/theaters.json";
+    private static final String BIG_ROOM_LAYOUT = "data/big_room.json";
+    private static final String SMALL_ROOM_LAYOUT = "data/small_room.json";
+
+    private static volatile Snapshot snapshot;
+    // 快照失效後保留的座位配置；座位配置來自檔案而非資料表，重新載入影廳時不需重新解析
+    private static Map<String, SeatLayout> retainedLayouts;
+
     private final TheaterDAO theaterDAO = new TheaterDAO();
 
     /**
@@ -15,7 +42,7 @@ public class TheaterService {
      * @return List of Theater objects.
      */
     public List<Theater> listTheaters() {
-        return theaterDAO.getAllTheaters();
+        return new ArrayList<>(snapshot().theaters);
     }
 
     /**
@@ -24,6 +51,151 @@ public class TheaterService {
      * @return Optional containing Theater if found, otherwise empty.
      */
     public Optional<Theater> getTheaterById(int theaterId) {
-        return Optional.ofNullable(theaterDAO.getTheaterById(theaterId));
+        return Optional.ofNullable(snapshot().byId.get(theaterId));
+    }
+
+    public Optional<Theater> getTheaterByType(String type) {
+        return Optional.ofNullable(snapshot().byType.get(type));
+    }
+
+    /**
+     * 一次取得多個影廳，找不到的 uid 不會出現在結果中
+     */
+    public Map<Integer, Theater> getTheatersByIds(Collection<Integer> ids) {
+        Snapshot current = snapshot();
+        Map<Integer, Theater> result = new HashMap<>();
+        for (Integer id : ids) {
+            Theater theater = current.byId.get(id);
+            if (theater != null) {
+                result.put(id, theater);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取得影廳的座位配置
+     * @return 座位配置，影廳不存在時返回 null
+     */
+    public SeatLayout getSeatLayout(int theaterUid) {
+        Snapshot current = snapshot();
+        Theater theater = current.byId.get(theaterUid);
+        return theater != null ? current.layoutFor(theater.getType()) : null;
+    }
+
+    /**
+     * 依影廳類型判斷是否使用大廳座位配置，含「大」或「A」的影廳（例如 大廳、Hall A）為大廳
+     */
+    public static boolean isBigRoom(String theaterType) {
+        return theaterType != null && (theaterType.contains("大") || theaterType.contains("A"));
+    }
+
+    /**
+     * 從資料庫重新載入影廳並替換快照，座位配置沿用目前快照（尚未載入時讀取影廳清單檔）
+     */
+    public void reload() {
+        synchronized (TheaterService.class) {
+            snapshot = new Snapshot(theaterDAO.getAllTheaters(), currentLayouts());
+        }
+    }
+
+    /**
+     * 以新匯入的座位配置與資料庫中的影廳替換快照
+     * 未包含在本次匯入中的影廳類型沿用目前快照的配置
+     * @param importedLayouts 影廳類型 → 座位配置
+     */
+    public void reload(Map<String, SeatLayout> importedLayouts) {
+        synchronized (TheaterService.class) {
+            Map<String, SeatLayout> layouts = new HashMap<>(currentLayouts());
+            layouts.putAll(importedLayouts);
+            snapshot = new Snapshot(theaterDAO.getAllTheaters(), layouts);
+        }
+    }
+
+    /**
+     * 丟棄快照，下次查詢時重新載入（影廳資料表被直接修改時使用），座位配置保留沿用
+     */
+    public static void invalidate() {
+        synchronized (TheaterService.class) {
+            if (snapshot != null) {
+                retainedLayouts = snapshot.layoutsByType;
+            }
+            snapshot = null;
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (TheaterService.class) {
+                current = snapshot;
+                if (current == null) {
+                    reload();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 目前快照或失效前保留的座位配置，兩者都沒有時讀取影廳清單檔，呼叫端需持有 TheaterService.class 鎖
+     */
+    private static Map<String, SeatLayout> currentLayouts() {
+        if (snapshot != null) {
+            return snapshot.layoutsByType;
+        }
+        return retainedLayouts != null ? retainedLayouts : loadDefaultLayouts();
+    }
+
+    /**
+     * 讀取影廳清單檔列出的所有座位配置；清單檔不存在時只載入大廳與小廳的預設座位檔
+     * 座位檔優先以編譯後的 .seatlayout 記憶體映射載入，見 SeatLayoutFile
+     */
+    private static Map<String, SeatLayout> loadDefaultLayouts() {
+        Map<String, String> layoutFiles = new HashMap<>();
+        if (new File(DEFAULT_THEATER_MANIFEST).isFile()) {
+            try {
+                layoutFiles.putAll(JsonDataLoader.loadTheaterLayoutFiles(DEFAULT_THEATER_MANIFEST));
+            } catch (IOException e) {
+                System.err.println("Error loading theater manifest: " + e.getMessage());
+            }
+        }
+        layoutFiles.putIfAbsent(BIG_ROOM_TYPE, BIG_ROOM_LAYOUT);
+        layoutFiles.putIfAbsent(SMALL_ROOM_TYPE, SMALL_ROOM_LAYOUT);
+
+        Map<String, SeatLayout> layouts = new HashMap<>();
+        for (Map.Entry<String, String> entry : layoutFiles.entrySet()) {
+            try {
+                layouts.put(entry.getKey(), SeatLayoutFile.load(entry.getKey(), entry.getValue()));
+            } catch (IOException e) {
+                System.err.println("Error loading seats for " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        return layouts;
+    }
+
+    private static class Snapshot {
+        private final List<Theater> theaters;
+        private final Map<Integer, Theater> byId = new HashMap<>();
+        private final Map<String, Theater> byType = new HashMap<>();
+        private final Map<String, SeatLayout> layoutsByType;
+
+        Snapshot(List<Theater> theaters, Map<String, SeatLayout> layoutsByType) {
+            this.theaters = Collections.unmodifiableList(new ArrayList<>(theaters));
+            for (Theater theater : theaters) {
+                byId.put(theater.getUid(), theater);
+                byType.put(theater.getType(), theater);
+            }
+            this.layoutsByType = Collections.unmodifiableMap(new HashMap<>(layoutsByType));
+        }
+
+        SeatLayout layoutFor(String theaterType) {
+            SeatLayout layout = layoutsByType.get(theaterType);
+            if (layout != null) {
+                return layout;
+            }
+            return layoutsByType.get(isBigRoom(theaterType) ? BIG_ROOM_TYPE : SMALL_ROOM_TYPE);
+        }
     }
 }
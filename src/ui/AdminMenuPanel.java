@@ -1,14 +1,14 @@
 package ui;
 
-import model.Member;
 import model.Movie;
-import model.Reservation;
+import model.ReservationView;
 import model.Showtime;
 import model.Theater;
 import service.MemberService;
 import service.MovieService;
 import service.ReservationService;
 import service.ShowtimeService;
+import service.EntityContext;
 import service.TheaterService;
 import util.DBUtil;
 
@@ -17,8 +17,12 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import com.toedter.calendar.JDateChooser; // 添加 JDateChooser 庫
 
 public class AdminMenuPanel extends JPanel {
@@ -59,6 +63,19 @@ public class AdminMenuPanel extends JPanel {
     private JButton updateReservationStatusButton;
     private JTextField searchReservationField; // 新增：訂單搜索欄位
     private JComboBox<String> filterStatusCombo; // 新增：訂單狀態過濾器
+    private static final int RESERVATION_PAGE_SIZE = 100;
+    private ScrollPager reservationsPager; // 捲動到底部時載入下一頁訂單
+    private String reservationStatusFilter; // 目前列表的狀態條件，null 表示全部
+    private String reservationKeyword; // 目前列表的搜索字串，null 表示不過濾
+    private ReservationView lastReservationView; // 已載入的最後一筆，作為下一頁的游標
+    private Runnable reservationsEmptyNotice; // 第一頁沒有資料時的提示，null 表示不提示
+
+    // 背景載入，避免查詢凍結畫面
+    private final UiTaskRunner.Slot moviesLoad = UiTaskRunner.getInstance().newSlot("電影管理列表");
+    private final UiTaskRunner.Slot movieChoicesLoad = UiTaskRunner.getInstance().newSlot("新增場次電影選項");
+    private final UiTaskRunner.Slot showtimesLoad = UiTaskRunner.getInstance().newSlot("場次管理列表");
+    private final UiTaskRunner.Slot showtimeOverviewLoad = UiTaskRunner.getInstance().newSlot("電影場次一覽");
+    private final UiTaskRunner.Slot reservationsLoad = UiTaskRunner.getInstance().newSlot("訂票管理列表");
 
     // Tab 4: Database Management
     private JButton resetDatabaseButton;
@@ -80,21 +97,16 @@ public class AdminMenuPanel extends JPanel {
         // 新增「查看電影場次」按鈕
         JButton btnViewShowtimes = new JButton("查看電影場次");
         btnViewShowtimes.addActionListener(e -> {
-            StringBuilder sb = new StringBuilder();
-            for (Movie m : movieService.getAllMovies()) {
-                sb.append(String.format("[%d] %s (%d 分鐘)%n", m.getUid(), m.getName(), m.getDuration()));
-                List<Showtime> sts = showtimeService.getShowtimesByMovieId(m.getUid());
-                if (sts.isEmpty()) {
-                    sb.append("   無排程\n");
-                } else {
-                    for (Showtime s : sts) {
-                        sb.append(String.format("   ID:%d 時間:%s 可用座位:%d%n", s.getUid(), s.getShowTime(), s.getAvailableSeats()));
-                    }
-                }
-            }
-            JTextArea ta = new JTextArea(sb.toString());
-            ta.setEditable(false);
-            JOptionPane.showMessageDialog(this, new JScrollPane(ta), "電影場次一覽", JOptionPane.INFORMATION_MESSAGE);
+            btnViewShowtimes.setEnabled(false);
+            showtimeOverviewLoad.submit(this::buildShowtimeOverview, text -> {
+                btnViewShowtimes.setEnabled(true);
+                JTextArea ta = new JTextArea(text);
+                ta.setEditable(false);
+                JOptionPane.showMessageDialog(this, new JScrollPane(ta), "電影場次一覽", JOptionPane.INFORMATION_MESSAGE);
+            }, error -> {
+                btnViewShowtimes.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "載入電影場次時發生錯誤: " + error.getMessage(), "系統錯誤", JOptionPane.ERROR_MESSAGE);
+            });
         });
         // 在頂部面板中置中顯示此按鈕
         topPanel.add(btnViewShowtimes, BorderLayout.CENTER);
@@ -129,6 +141,42 @@ public class AdminMenuPanel extends JPanel {
         loadAllReservations();
     }
 
+    // 在背景執行緒組出所有電影與場次的文字一覽
+    private String buildShowtimeOverview() {
+        List<Movie> movies = movieService.getAllMovies();
+        // 一次載入所有場次（已依開演時間排序），在記憶體中依電影分組
+        List<Showtime> allShowtimes = showtimeService.getAllShowtimes();
+        Map<Integer, List<Showtime>> showtimesByMovie = new LinkedHashMap<>();
+        List<Integer> showtimeUids = new ArrayList<>(allShowtimes.size());
+        for (Showtime s : allShowtimes) {
+            showtimesByMovie.computeIfAbsent(s.getMovieUid(), uid -> new ArrayList<>()).add(s);
+            showtimeUids.add(s.getUid());
+        }
+        // 各場次的訂票數以一次 GROUP BY 統計
+        Map<Integer, Integer> bookedCounts = reservationService.getBookedSeatCounts(showtimeUids);
+
+        StringBuilder sb = new StringBuilder();
+        try (EntityContext context = EntityContext.open()) {
+            context.preloadShowtimes(allShowtimes);
+            for (Movie m : movies) {
+                sb.append(String.format("[%d] %s (%d 分鐘)%n", m.getUid(), m.getName(), m.getDuration()));
+                List<Showtime> sts = showtimesByMovie.get(m.getUid());
+                if (sts == null) {
+                    sb.append("   無排程\n");
+                } else {
+                    for (Showtime s : sts) {
+                        Theater theater = s.getTheater();
+                        int available = theater != null
+                                ? theater.getTotalSeats() - bookedCounts.getOrDefault(s.getUid(), 0)
+                                : s.getAvailableSeats();
+                        sb.append(String.format("   ID:%d 時間:%s 可用座位:%d%n", s.getUid(), s.getShowTime(), available));
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
     // =========================================================================
     // Movie Management Panel (Tab 1)
     // =========================================================================
@@ -185,17 +233,18 @@ public class AdminMenuPanel extends JPanel {
     }
 
     private void loadMovies() {
-        moviesTableModel.setRowCount(0);
-        List<Movie> movies = movieService.getAllMovies();
-        for (Movie movie : movies) {
-            moviesTableModel.addRow(new Object[]{
-                    movie.getUid(),
-                    movie.getName(),
-                    movie.getRating(),
-                    movie.getDuration(),
-                    movie.getDescription()
-            });
-        }
+        moviesLoad.submit(movieService::getAllMovies, movies -> {
+            moviesTableModel.setRowCount(0);
+            for (Movie movie : movies) {
+                moviesTableModel.addRow(new Object[]{
+                        movie.getUid(),
+                        movie.getName(),
+                        movie.getRating(),
+                        movie.getDuration(),
+                        movie.getDescription()
+                });
+            }
+        });
     }
 
     private void handleAddMovie() {
@@ -393,30 +442,46 @@ public class AdminMenuPanel extends JPanel {
         if (movieComboBoxForAddShowtime == null) {
             movieComboBoxForAddShowtime = new JComboBox<>(); // Ensure it's initialized if called early
         }
-        movieComboBoxForAddShowtime.removeAllItems();
-        List<Movie> movies = movieService.getAllMovies();
-        if (movies != null) {
-            for (Movie m : movies) {
-                movieComboBoxForAddShowtime.addItem(m.getUid() + " - " + m.getName());
+        movieChoicesLoad.submit(movieService::getAllMovies, movies -> {
+            movieComboBoxForAddShowtime.removeAllItems();
+            if (movies != null) {
+                for (Movie m : movies) {
+                    movieComboBoxForAddShowtime.addItem(m.getUid() + " - " + m.getName());
+                }
             }
-        }
+        });
     }
 
     private void loadAllShowtimes() {
-        showtimesTableModel.setRowCount(0);
+        showtimesLoad.submit(this::buildShowtimeRows, rows -> {
+            showtimesTableModel.setRowCount(0);
+            for (Object[] row : rows) {
+                showtimesTableModel.addRow(row);
+            }
+        });
+    }
+
+    // 在背景執行緒查詢所有場次與關聯資料，組成表格資料列
+    private List<Object[]> buildShowtimeRows() {
+        List<Object[]> rows = new ArrayList<>();
         List<Showtime> showtimes = showtimeService.getAllShowtimes(); // Need a method to get all showtimes
-        for (Showtime st : showtimes) {
-            Movie movie = st.getMovie(); // Assuming Showtime has getMovie()
-            String movieName = (movie != null) ? movie.getName() : "N/A";
-            String theaterType = (st.getTheater() != null) ? st.getTheater().getType() : "N/A";
-            showtimesTableModel.addRow(new Object[]{
-                    st.getUid(),
-                    (movie != null) ? movie.getUid() : -1,
-                    movieName,
-                    theaterType, // Use getType
-                    st.getShowTime() // Consider formatting
-            });
+        // 以識別表批次載入關聯資料，避免每筆資料各自查詢
+        try (EntityContext context = EntityContext.open()) {
+            context.preloadShowtimes(showtimes);
+            for (Showtime st : showtimes) {
+                Movie movie = st.getMovie(); // Assuming Showtime has getMovie()
+                String movieName = (movie != null) ? movie.getName() : "N/A";
+                String theaterType = (st.getTheater() != null) ? st.getTheater().getType() : "N/A";
+                rows.add(new Object[]{
+                        st.getUid(),
+                        (movie != null) ? movie.getUid() : -1,
+                        movieName,
+                        theaterType, // Use getType
+                        st.getShowTime() // Consider formatting
+                });
+            }
         }
+        return rows;
     }
 
     private void handleUpdateShowtime() {
@@ -539,6 +604,7 @@ public class AdminMenuPanel extends JPanel {
         reservationsTable.setRowSorter(sorter);
         
         JScrollPane reservationsScrollPane = new JScrollPane(reservationsTable);
+        reservationsPager = new ScrollPager(reservationsScrollPane, this::loadNextReservationPage);
         panel.add(reservationsScrollPane, BorderLayout.CENTER);
 
         // --- Action Panel (Update Status) ---
@@ -572,148 +638,73 @@ public class AdminMenuPanel extends JPanel {
             return;
         }
         
-        // 先加載所有訂單
-        List<Reservation> allReservations = reservationService.listReservations();
-        reservationsTableModel.setRowCount(0);
-        
-        // 只顯示匹配的訂單
-        for (Reservation res : allReservations) {
-            // 取得會員名稱
-            Member member = memberService.getMemberById(res.getMemberUid());
-            String memberName = (member != null) ? member.getUsername() : "未知";
-            
-            // 取得電影名稱和影廳資訊
-            Showtime showtime = res.getShowtime();
-            Movie movie = (showtime != null) ? showtime.getMovie() : null;
-            String movieName = (movie != null) ? movie.getName() : "未知電影";
-            String theaterType = (showtime != null && showtime.getTheater() != null) ? 
-                                showtime.getTheater().getType() : "未知影廳";
-            String showTimeStr = (showtime != null) ? showtime.getShowTime() : "未知時間";
-            
-            // 檢查是否包含搜索詞
-            String resInfo = res.getUid() + " " + res.getMemberUid() + " " + memberName + " " + 
-                            movieName + " " + theaterType + " " + showTimeStr + " " + 
-                            res.getSeatNo() + " " + res.getStatus();
-            
-            if (resInfo.toLowerCase().contains(query.toLowerCase())) {
-                reservationsTableModel.addRow(new Object[]{
-                    res.getUid(),
-                    res.getMemberUid(),
-                    memberName,
-                    movieName,
-                    res.getShowtimeUid(),
-                    theaterType,
-                    showTimeStr,
-                    String.join(", ", res.getSeatNumbers()),
-                    res.getStatus()
-                });
-            }
-        }
-        
-        if (reservationsTableModel.getRowCount() == 0) {
-            JOptionPane.showMessageDialog(this, "沒有找到匹配的訂單", "搜索結果", JOptionPane.INFORMATION_MESSAGE);
-        }
+        // 搜索交由資料庫處理，只顯示匹配的訂單並隨捲動分頁載入
+        reloadReservations(null, query, () ->
+            JOptionPane.showMessageDialog(this, "沒有找到匹配的訂單", "搜索結果", JOptionPane.INFORMATION_MESSAGE));
     }
     
     // 按狀態過濾訂單
     private void filterReservationsByStatus(String status) {
-        // 先加載所有訂單
-        List<Reservation> allReservations = reservationService.listReservations();
-        reservationsTableModel.setRowCount(0);
+        // 狀態過濾交由資料庫處理
+        String statusFilter = null;
+        if (status.equals("已確認")) statusFilter = "CONFIRMED";
+        if (status.equals("已取消")) statusFilter = "CANCELLED";
         
-        for (Reservation res : allReservations) {
-            // 狀態過濾
-            if (!status.equals("全部")) {
-                if (status.equals("已確認") && !res.getStatus().equals("CONFIRMED")) continue;
-                if (status.equals("已取消") && !res.getStatus().equals("CANCELLED")) continue;
-            }
-            
-            // 取得會員名稱
-            Member member = memberService.getMemberById(res.getMemberUid());
-            String memberName = (member != null) ? member.getUsername() : "未知";
-            
-            // 取得電影名稱和影廳資訊
-            Showtime showtime = res.getShowtime();
-            Movie movie = (showtime != null) ? showtime.getMovie() : null;
-            String movieName = (movie != null) ? movie.getName() : "未知電影";
-            String theaterType = (showtime != null && showtime.getTheater() != null) ? 
-                                showtime.getTheater().getType() : "未知影廳";
-            String showTimeStr = (showtime != null) ? showtime.getShowTime() : "未知時間";
-            
-            reservationsTableModel.addRow(new Object[]{
-                res.getUid(),
-                res.getMemberUid(),
-                memberName,
-                movieName,
-                res.getShowtimeUid(),
-                theaterType,
-                showTimeStr,
-                String.join(", ", res.getSeatNumbers()),
-                res.getStatus()
-            });
-        }
+        reloadReservations(statusFilter, null, null);
     }
 
     private void loadAllReservations() {
-        reservationsTableModel.setRowCount(0);
-        List<Reservation> reservations = reservationService.listReservations();
-        
         // 如果沒有訂單，顯示提示訊息
-        if (reservations.isEmpty()) {
+        reloadReservations(null, null, () -> {
             System.out.println("沒有找到任何訂單記錄");
             JOptionPane.showMessageDialog(this, "資料庫中沒有找到任何訂單記錄", "無訂單資料", JOptionPane.INFORMATION_MESSAGE);
-            return;
-        }
-        
-        System.out.println("找到 " + reservations.size() + " 條訂單記錄");
-        
-        for (Reservation res : reservations) {
-            try {
-                // 取得會員名稱 (使用 email 作為用戶名)
-                Member member = memberService.getMemberById(res.getMemberUid());
-                String memberName = (member != null) ? member.getEmail() : "未知會員";
-                
-                // 直接從 Reservation 獲取電影信息
-                Movie movie = null;
-                String movieName = "未知電影";
-                try {
-                    movie = res.getMovie();
-                    if (movie != null) {
-                        movieName = movie.getName();
-                    }
-                } catch (Exception e) {
-                    System.err.println("無法獲取電影資訊: " + e.getMessage());
-                }
-                
-                // 顯示場次和影廳資訊
-                Showtime showtimeObj = res.getShowtime();
-                String theaterType = (showtimeObj != null && showtimeObj.getTheater() != null) ? showtimeObj.getTheater().getType() : "未知影廳";
-                String showTimeStr = res.getTime();
-                
-                System.out.println("處理訂單 ID: " + res.getUid() + ", 會員: " + memberName + ", 電影: " + movieName + ", 時間: " + showTimeStr);
-                
-                // 將資訊添加到表格
-                reservationsTableModel.addRow(new Object[]{
-                    res.getUid(),
-                    res.getMemberUid(),
-                    memberName,
-                    movieName,
-                    res.getShowtimeUid(),
-                    theaterType,
-                    showTimeStr,
-                    res.getSeatNo(),
-                    res.getStatus()
-                });
-            } catch (Exception e) {
-                System.err.println("處理訂單時發生錯誤: " + e.getMessage());
-                e.printStackTrace();
+        });
+    }
+
+    // 以新的條件清空表格並從第一頁重新載入；emptyNotice 在第一頁沒有資料時執行
+    private void reloadReservations(String status, String keyword, Runnable emptyNotice) {
+        reservationStatusFilter = status;
+        reservationKeyword = keyword;
+        reservationsEmptyNotice = emptyNotice;
+        lastReservationView = null;
+        reservationsTableModel.setRowCount(0);
+        reservationsPager.reset();
+    }
+
+    // 在背景載入下一頁訂單，完成後回報是否可能還有更多資料
+    private void loadNextReservationPage(Consumer<Boolean> onLoaded) {
+        String status = reservationStatusFilter;
+        String keyword = reservationKeyword;
+        ReservationView after = lastReservationView;
+        reservationsLoad.submit(() -> reservationService.listReservationViewsPage(status, keyword, after, RESERVATION_PAGE_SIZE), page -> {
+            for (ReservationView res : page) {
+                reservationsTableModel.addRow(toReservationRow(res));
             }
-        }
-        
-        // 如果表格為空，顯示提示訊息
-        if (reservationsTableModel.getRowCount() == 0) {
-            JOptionPane.showMessageDialog(this, "無法載入訂單資料，請檢查系統日誌", "資料載入失敗", JOptionPane.ERROR_MESSAGE);
-        }
+            if (!page.isEmpty()) {
+                lastReservationView = page.get(page.size() - 1);
+            } else if (after == null && reservationsEmptyNotice != null) {
+                reservationsEmptyNotice.run();
+            }
+            onLoaded.accept(page.size() == RESERVATION_PAGE_SIZE);
+        }, error -> {
+            System.err.println("載入訂單時發生錯誤: " + error.getMessage());
+            onLoaded.accept(false);
+        });
+    }
+
+    // 將訂單投影轉為表格列，關聯資料已不存在時顯示預設文字
+    private Object[] toReservationRow(ReservationView res) {
+        return new Object[]{
+            res.getUid(),
+            res.getMemberUid(),
+            res.getMemberEmail() != null ? res.getMemberEmail() : "未知會員",
+            res.getMovieName() != null ? res.getMovieName() : "未知電影",
+            res.getShowtimeUid(),
+            res.getTheaterType() != null ? res.getTheaterType() : "未知影廳",
+            res.getShowTime() != null ? res.getShowTime() : "未知時間",
+            res.getSeatNo(),
+            res.getStatus()
+        };
     }
 
     private void handleUpdateReservationStatus() {
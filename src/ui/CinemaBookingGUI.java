@@ -40,6 +40,7 @@ public class CinemaBookingGUI {
             System.out.println("Database initialized successfully.");
         } else {
             System.out.println("Database found. Skipping initialization.");
+            DBUtil.migrateSchema();
         }
     }
 
@@ -5,6 +5,8 @@ import service.MovieService;
 import service.ShowtimeService;
 import service.ReservationService;
 import service.DataImportService;
+import service.TheaterService;
+import service.AvailabilityReconciler;
 import util.DBUtil;
 import model.Member;
 import model.Movie;
@@ -34,42 +36,36 @@ public class Main {
             System.out.println("資料庫不存在。初始化資料庫...");
             DBUtil.initializeDatabase();
             System.out.println("資料庫初始化成功。");
-            
-            // 初始化後導入JSON資料
-            importDataFromJson();
         } else {
             System.out.println("資料庫已存在。跳過初始化。");
-            
-            // 確保資料是最新的
-            System.out.println("檢查並更新電影和影廳資料...");
-            importDataFromJson();
             // 在已有資料庫上插入預設場次（使用 INSERT OR IGNORE 保持 idempotent）
             DBUtil.initializeDatabase();
         }
 
-        // 啟動GUI界面
+        // 定期核對場次可用座位數與訂票紀錄，第一次執行時核對所有場次
+        AvailabilityReconciler.getInstance().start();
+
+        // 先顯示GUI，JSON資料在背景導入
         startGUI();
+        importDataFromJson();
     }
 
     /**
-     * 從JSON檔案導入資料到資料庫
+     * 在背景從JSON檔案導入資料到資料庫，進度由匯入執行緒輸出
      */
     private static void importDataFromJson() {
-        try {
-            // 導入電影資訊
-            String movieJsonPath = "data/movie_info.json";
-            int movieCount = dataImportService.importMoviesFromJson(movieJsonPath);
-            System.out.println("成功導入 " + movieCount + " 部電影。");
-            
-            // 導入影廳座位資訊
-            String bigRoomJsonPath = "data/big_room.json";
-            String smallRoomJsonPath = "data/small_room.json";
-            int theaterCount = dataImportService.importTheatersFromJson(bigRoomJsonPath, smallRoomJsonPath);
-            System.out.println("成功更新 " + theaterCount + " 個影廳資訊。");
-        } catch (Exception e) {
-            System.err.println("導入JSON資料時發生錯誤: " + e.getMessage());
-            e.printStackTrace();
-        }
+        System.out.println("檢查並更新電影和影廳資料...");
+        long start = System.nanoTime();
+        dataImportService.importAllAsync(
+                "data/movie_info.json", TheaterService.DEFAULT_THEATER_MANIFEST,
+                message -> System.out.println(message))
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    System.err.println("導入JSON資料時發生錯誤: " + error.getMessage());
+                } else {
+                    System.out.println("JSON資料導入完成，耗時 " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+            });
     }
 
     /**
@@ -0,0 +1,90 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.Point;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 捲動到接近底部時載入下一頁
+ * 頁面載入由呼叫端提供，完成時告知是否還有下一頁；第一頁不足以填滿視窗時會繼續載入直到出現捲軸或沒有更多資料
+ * 頁面可在背景載入（見 UiTaskRunner），載入中不會重複要求下一頁
+ */
+public class ScrollPager {
+    // 距離底部多少像素內就開始載入下一頁
+    private static final int PREFETCH_PIXELS = 48;
+
+    /**
+     * 非同步頁面載入，完成後須在 EDT 上以是否還有下一頁呼叫 onLoaded（失敗時傳入 false）
+     */
+    public interface PageLoader {
+        void loadNextPage(Consumer<Boolean> onLoaded);
+    }
+
+    private final JScrollPane scrollPane;
+    private final PageLoader loader;
+    private boolean hasMore;
+    private boolean loading;
+    // reset 後遞增，重設前發出的頁面完成時不再影響狀態
+    private int generation;
+
+    /**
+     * 同步載入頁面，返回是否還有下一頁
+     */
+    public ScrollPager(JScrollPane scrollPane, BooleanSupplier loadNextPage) {
+        this(scrollPane, onLoaded -> onLoaded.accept(loadNextPage.getAsBoolean()));
+    }
+
+    public ScrollPager(JScrollPane scrollPane, PageLoader loader) {
+        this.scrollPane = scrollPane;
+        this.loader = loader;
+        // 捲動、視窗大小改變與表格內容改變都會觸發 viewport 的 ChangeEvent
+        scrollPane.getViewport().addChangeListener(e -> loadIfNearBottom());
+    }
+
+    /**
+     * 呼叫端清空表格與游標後呼叫，重新從第一頁開始載入
+     */
+    public void reset() {
+        generation++;
+        loading = false;
+        hasMore = true;
+        scrollPane.getViewport().setViewPosition(new Point(0, 0));
+        loadPage();
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    private void loadIfNearBottom() {
+        // 尚未顯示時視窗高度為 0，若繼續判斷會把所有頁面一次載入
+        if (!hasMore || loading || !scrollPane.isShowing()) {
+            return;
+        }
+        JViewport viewport = scrollPane.getViewport();
+        if (viewport.getView() == null) {
+            return;
+        }
+        int visibleBottom = viewport.getViewPosition().y + viewport.getExtentSize().height;
+        if (visibleBottom >= viewport.getView().getHeight() - PREFETCH_PIXELS) {
+            loadPage();
+        }
+    }
+
+    private void loadPage() {
+        loading = true;
+        int requested = generation;
+        loader.loadNextPage(more -> {
+            if (requested != generation) {
+                return;
+            }
+            loading = false;
+            hasMore = more;
+            // 等表格重新排版後再檢查，資料仍不足一個視窗高時繼續載入
+            if (hasMore) {
+                SwingUtilities.invokeLater(this::loadIfNearBottom);
+            }
+        });
+    }
+}
@@ -0,0 +1,347 @@
+package ui;
+
+import model.SeatLayout;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Arrays;
+
+/**
+ * 以單一元件自行繪製的座位圖
+ * 直接依 SeatLayout 的座位陣列繪製與判斷點擊位置，不為每個座位建立按鈕；
+ * 座位狀態改變時只重繪該座位所在的區域，繪製時也只處理畫面可見範圍內的座位
+ * 支援縮放：按住 Ctrl 捲動滑鼠滾輪，或呼叫 setZoom
+ */
+public class SeatMapCanvas extends JComponent {
+    // 座位狀態
+    public static final byte AVAILABLE = 0;
+    public static final byte SELECTED = 1;
+    public static final byte RESERVED = 2;
+    public static final byte HELD = 3; // 其他會員保留中
+
+    public static final Color STANDARD_SEAT_COLOR = Color.LIGHT_GRAY;
+    public static final Color BLUE_SEAT_COLOR = new Color(173, 216, 230); // 淺藍色
+    public static final Color YELLOW_SEAT_COLOR = new Color(255, 255, 153); // 淺黃色
+    public static final Color RED_SEAT_COLOR = new Color(255, 153, 153); // 淺紅色
+    public static final Color SELECTED_SEAT_COLOR = new Color(50, 205, 50); // 亮綠色
+    public static final Color RESERVED_SEAT_COLOR = Color.GRAY;
+    public static final Color HELD_SEAT_COLOR = new Color(255, 165, 0); // 橘色
+    public static final Color BACKGROUND_COLOR = new Color(240, 240, 240); // 淺灰色背景
+
+    public static final double MIN_ZOOM = 0.5;
+    public static final double MAX_ZOOM = 3.0;
+
+    private static final int SEAT_SIZE = 30; // 座位大小（縮放前）
+    private static final int SEAT_GAP = 5;   // 座位之間的間隙（縮放前）
+
+    /**
+     * 點擊可選取或已選取座位時的回調
+     */
+    public interface SeatClickListener {
+        void onSeatClicked(int seatIndex);
+    }
+
+    private final SeatLayout layout;
+    private final byte[] states;
+    private final Color[] regionColors;
+    private final int[][] seatAt; // [排][號碼] → 座位索引，沒有座位為 -1
+    private final int colLabelStep;
+    private double zoom = 1.0;
+    private SeatClickListener listener;
+
+    public SeatMapCanvas(SeatLayout layout) {
+        this.layout = layout;
+        this.states = new byte[layout.size()];
+        this.regionColors = new Color[layout.size()];
+        int maxCols = layout.getMaxSeatNumber();
+        this.seatAt = new int[layout.getRowCount()][maxCols + 1];
+        for (int[] row : seatAt) {
+            Arrays.fill(row, -1);
+        }
+        for (int i = 0; i < layout.size(); i++) {
+            regionColors[i] = regionColor(layout.regionAt(i));
+            int row = layout.rowIndexAt(i);
+            int col = layout.seatNumberAt(i);
+            // 號碼由 SeatLayout 保證從 1 開始（第 0 欄為排名稱）；同一位置重複的座位只顯示第一個
+            if (seatAt[row][col] < 0) {
+                seatAt[row][col] = i;
+            }
+        }
+        // 座位較多時每5列顯示一次列號
+        this.colLabelStep = maxCols > 20 ? 5 : 1;
+
+        setOpaque(true);
+        setBackground(BACKGROUND_COLOR);
+        ToolTipManager.sharedInstance().registerComponent(this);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (!isEnabled() || listener == null || !SwingUtilities.isLeftMouseButton(e)) {
+                    return;
+                }
+                int index = seatIndexAt(e.getX(), e.getY());
+                if (index >= 0 && (states[index] == AVAILABLE || states[index] == SELECTED)) {
+                    listener.onSeatClicked(index);
+                }
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int index = isEnabled() ? seatIndexAt(e.getX(), e.getY()) : -1;
+                boolean clickable = index >= 0 && (states[index] == AVAILABLE || states[index] == SELECTED);
+                setCursor(clickable ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (e.isControlDown()) {
+                    setZoom(zoom * (e.getWheelRotation() < 0 ? 1.25 : 0.8));
+                } else if (getParent() != null) {
+                    // 未按 Ctrl 時交給外層捲動面板處理
+                    getParent().dispatchEvent(SwingUtilities.convertMouseEvent(SeatMapCanvas.this, e, getParent()));
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    public void setSeatClickListener(SeatClickListener listener) {
+        this.listener = listener;
+    }
+
+    public SeatLayout getLayoutModel() {
+        return layout;
+    }
+
+    public byte getSeatState(int index) {
+        return states[index];
+    }
+
+    /**
+     * 設定座位狀態，只重繪該座位
+     */
+    public void setSeatState(int index, byte state) {
+        if (states[index] != state) {
+            states[index] = state;
+            repaintSeat(index);
+        }
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * 設定縮放倍率，限制在 MIN_ZOOM 到 MAX_ZOOM 之間
+     */
+    public void setZoom(double zoom) {
+        double clamped = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        if (clamped != this.zoom) {
+            this.zoom = clamped;
+            revalidate();
+            repaint();
+        }
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int cell = cellSize();
+        return new Dimension((layout.getMaxSeatNumber() + 1) * cell + gap(),
+                headerHeight() + layout.getRowCount() * cell + gap());
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int index = seatIndexAt(e.getX(), e.getY());
+        if (index < 0) {
+            return null;
+        }
+        switch (states[index]) {
+            case RESERVED:
+                return layout.labelAt(index) + " 已訂位";
+            case HELD:
+                return layout.labelAt(index) + " 其他會員保留中";
+            case SELECTED:
+                return layout.labelAt(index) + " 已選擇";
+            default:
+                return layout.labelAt(index);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            int cell = cellSize();
+            int header = headerHeight();
+            int maxCols = layout.getMaxSeatNumber();
+            // 只處理與重繪區域相交的排與列
+            int firstCol = Math.max(1, clip.x / cell);
+            int lastCol = Math.min(maxCols, (clip.x + clip.width) / cell);
+            int firstRow = Math.max(0, (clip.y - header) / cell);
+            int lastRow = Math.min(layout.getRowCount() - 1, (clip.y + clip.height - header) / cell);
+
+            // 列標題（數字）
+            if (clip.y < header) {
+                g.setFont(new Font("SansSerif", Font.BOLD, scaled(10)));
+                g.setColor(Color.DARK_GRAY);
+                for (int col = firstCol; col <= lastCol; col++) {
+                    if (col % colLabelStep == 0) {
+                        drawCentered(g, String.valueOf(col), col * cell, 0, cell, header);
+                    }
+                }
+            }
+            // 行標題（字母）
+            if (clip.x < cell) {
+                g.setFont(new Font("SansSerif", Font.BOLD, scaled(12)));
+                g.setColor(Color.DARK_GRAY);
+                for (int row = firstRow; row <= lastRow; row++) {
+                    drawCentered(g, layout.getRow(row), 0, header + row * cell, cell, cell);
+                }
+            }
+
+            Font seatFont = new Font("SansSerif", Font.PLAIN, scaled(9));
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    int index = seatAt[row][col];
+                    if (index >= 0) {
+                        paintSeat(g, index, seatFont);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void paintSeat(Graphics2D g, int index, Font font) {
+        Rectangle r = seatBounds(index);
+        byte state = states[index];
+        Color fill;
+        switch (state) {
+            case SELECTED:
+                fill = SELECTED_SEAT_COLOR;
+                break;
+            case RESERVED:
+                fill = RESERVED_SEAT_COLOR;
+                break;
+            case HELD:
+                fill = HELD_SEAT_COLOR;
+                break;
+            default:
+                fill = regionColors[index];
+                break;
+        }
+        g.setColor(fill);
+        g.fillRect(r.x, r.y, r.width, r.height);
+        if (state == SELECTED) {
+            // 增強選中效果：較粗的邊框
+            g.setColor(Color.BLACK);
+            g.setStroke(new BasicStroke(2f));
+            g.drawRect(r.x + 1, r.y + 1, r.width - 2, r.height - 2);
+            g.setStroke(new BasicStroke(1f));
+        } else {
+            g.setColor(Color.DARK_GRAY);
+            g.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+        }
+
+        // 座位狀態尚未載入時以較淡的文字顯示
+        g.setFont(font);
+        g.setColor(state == SELECTED ? Color.WHITE : isEnabled() ? Color.BLACK : Color.GRAY);
+        String text = state == RESERVED ? "X" : layout.labelAt(index);
+        Shape oldClip = g.getClip();
+        g.clipRect(r.x, r.y, r.width, r.height);
+        drawCentered(g, text, r.x, r.y, r.width, r.height);
+        g.setClip(oldClip);
+    }
+
+    private void drawCentered(Graphics2D g, String text, int x, int y, int width, int height) {
+        FontMetrics fm = g.getFontMetrics();
+        int textX = x + (width - fm.stringWidth(text)) / 2;
+        int textY = y + (height - fm.getHeight()) / 2 + fm.getAscent();
+        g.drawString(text, textX, textY);
+    }
+
+    /**
+     * 座位在元件上的位置
+     */
+    private Rectangle seatBounds(int index) {
+        int cell = cellSize();
+        int size = cell - gap();
+        int x = layout.seatNumberAt(index) * cell + gap();
+        int y = headerHeight() + layout.rowIndexAt(index) * cell + gap();
+        return new Rectangle(x, y, size, size);
+    }
+
+    private void repaintSeat(int index) {
+        Rectangle r = seatBounds(index);
+        repaint(r.x - 1, r.y - 1, r.width + 2, r.height + 2);
+    }
+
+    /**
+     * 座標所在的座位索引，落在間隙或空位時返回 -1
+     */
+    private int seatIndexAt(int x, int y) {
+        int cell = cellSize();
+        int header = headerHeight();
+        if (x < cell || y < header) {
+            return -1;
+        }
+        int col = x / cell;
+        int row = (y - header) / cell;
+        if (row >= seatAt.length || col >= seatAt[row].length
+                || x % cell < gap() || (y - header) % cell < gap()) {
+            return -1;
+        }
+        return seatAt[row][col];
+    }
+
+    private int cellSize() {
+        return scaled(SEAT_SIZE + SEAT_GAP);
+    }
+
+    private int gap() {
+        return Math.max(1, scaled(SEAT_GAP));
+    }
+
+    private int headerHeight() {
+        return cellSize() * 2 / 3;
+    }
+
+    private int scaled(int value) {
+        return (int) Math.round(value * zoom);
+    }
+
+    private static Color regionColor(String region) {
+        switch (region) {
+            case "blue":
+                return BLUE_SEAT_COLOR;
+            case "yellow":
+                return YELLOW_SEAT_COLOR;
+            case "red":
+                return RED_SEAT_COLOR;
+            default:
+                return STANDARD_SEAT_COLOR;
+        }
+    }
+}
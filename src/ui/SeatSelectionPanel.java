@@ -1,48 +1,47 @@
 package ui;
 
+import model.SeatLayout;
 import model.Showtime;
 import model.Theater;
 import service.ReservationService;
+import service.SeatEventBus;
+import service.TheaterService;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.border.LineBorder;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 提供圖形化座位選擇界面
  */
 public class SeatSelectionPanel extends JPanel {
-    private static final int SEAT_SIZE = 30; // 座位按鈕大小
-    private static final int SEAT_GAP = 5;   // 座位之間的間隙
-    
+    // 座位事件合併間隔（毫秒），可用 -Dcinema.ui.seatEventCoalesceMillis 調整
+    private static final int SEAT_EVENT_COALESCE_MILLIS = Integer.getInteger("cinema.ui.seatEventCoalesceMillis", 100);
+
     private final Showtime selectedShowtime;
     private final ReservationService reservationService;
-    private final JPanel seatsPanel;
+    private final TheaterService theaterService = new TheaterService();
+    private final int memberUid; // 選位的會員，小於等於 0 表示不保留座位
+    private final JScrollPane seatsScrollPane;
     private final JPanel selectedSeatsPanel;
     private final JLabel screenLabel;
     private final JLabel theaterInfoLabel;
     
-    private final Map<String, JToggleButton> seatButtons = new HashMap<>();
+    private SeatMapCanvas seatMap; // 沒有座位配置時為 null
     private final Set<String> selectedSeats = new HashSet<>();
-    private final Set<String> reservedSeats = new HashSet<>();
-    
-    private final Color standardSeatColor = Color.LIGHT_GRAY;
-    private final Color blueSeatColor = new Color(173, 216, 230); // 淺藍色
-    private final Color yellowSeatColor = new Color(255, 255, 153); // 淺黃色
-    private final Color redSeatColor = new Color(255, 153, 153); // 淺紅色
-    // 將選中座位的顏色改為鮮艷的綠色，增加識別度
-    private final Color selectedSeatColor = new Color(50, 205, 50); // 亮綠色
-    private final Color reservedSeatColor = Color.GRAY; // 灰色
-    private final Color invalidSeatColor = new Color(240, 240, 240); // 淺灰色背景，用於無效座位
-    
-    // 定義影廳類型常量
-    private static final String BIG_THEATER_TYPE = "A";
-    private static final String SMALL_THEATER_TYPE = "B";
+    private final UiTaskRunner.Slot occupancyLoad = UiTaskRunner.getInstance().newSlot("座位狀態");
+
+    // 其他視窗的訂票、取消與保留事件先排入佇列，由 EDT 上的計時器合併後一次套用
+    private final SeatEventBus.Listener seatEventListener = this::enqueueSeatEvent;
+    private final ConcurrentLinkedQueue<SeatEventBus.SeatEvent> pendingSeatEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean seatEventFlushScheduled = new AtomicBoolean();
+    private final javax.swing.Timer seatEventTimer;
+    private boolean subscribed;
+    private boolean seatStatesFailed; // 座位狀態載入失敗後不再訂閱事件
     
     /**
      * 選擇座位後的回調接口
@@ -59,8 +58,21 @@ public class SeatSelectionPanel extends JPanel {
      * @param reservationService 訂票服務
      */
     public SeatSelectionPanel(Showtime showtime, ReservationService reservationService) {
+        this(showtime, reservationService, -1);
+    }
+
+    /**
+     * 創建座位選擇面板，選取座位時會為會員暫時保留
+     * @param showtime 場次信息
+     * @param reservationService 訂票服務
+     * @param memberUid 選位的會員ID
+     */
+    public SeatSelectionPanel(Showtime showtime, ReservationService reservationService, int memberUid) {
         this.selectedShowtime = showtime;
         this.reservationService = reservationService;
+        this.memberUid = memberUid;
+        this.seatEventTimer = new javax.swing.Timer(SEAT_EVENT_COALESCE_MILLIS, e -> flushSeatEvents());
+        this.seatEventTimer.setRepeats(false);
         
         setLayout(new BorderLayout(10, 10));
         
@@ -82,13 +94,12 @@ public class SeatSelectionPanel extends JPanel {
         infoPanel.setBorder(new EmptyBorder(5, 0, 5, 0));
         add(infoPanel, BorderLayout.NORTH);
         
-        // 座位區域面板
-        seatsPanel = new JPanel();
-        seatsPanel.setBackground(invalidSeatColor); // 淺灰色背景
-        JScrollPane scrollPane = new JScrollPane(seatsPanel);
-        scrollPane.setPreferredSize(new Dimension(600, 400));
-        scrollPane.getVerticalScrollBar().setUnitIncrement(16); // 改善滾動速度
-        add(scrollPane, BorderLayout.CENTER);
+        // 座位區域
+        seatsScrollPane = new JScrollPane();
+        seatsScrollPane.getViewport().setBackground(SeatMapCanvas.BACKGROUND_COLOR); // 淺灰色背景
+        seatsScrollPane.setPreferredSize(new Dimension(600, 400));
+        seatsScrollPane.getVerticalScrollBar().setUnitIncrement(16); // 改善滾動速度
+        add(seatsScrollPane, BorderLayout.CENTER);
         
         // 已選擇的座位資訊區域
         selectedSeatsPanel = new JPanel();
@@ -98,36 +109,32 @@ public class SeatSelectionPanel extends JPanel {
         selectedSeatsPanel.add(noSeatsLabel);
         add(selectedSeatsPanel, BorderLayout.SOUTH);
         
-        // 載入已預訂座位
-        loadReservedSeats();
-        
-        // 確認座位計畫已載入，並且檢查影廳類型
+        // 座位配置取自 TheaterService 預先解析的快照，座位圖直接依配置陣列繪製
         if (showtime != null) {
-            // 直接從 Theater 物件獲取類型，避免依賴 getTheaterName
             Theater theater = showtime.getTheater();
             String type = theater != null ? theater.getType() : null;
-            System.out.println("===== 除錯信息 =====");
-            System.out.println("影廳類型: " + type);
-            System.out.println("影廳名稱: " + theaterType);
-            System.out.println("影廳ID: " + (theater != null ? theater.getUid() : "N/A"));
-            System.out.println("====================");
-            
-            // 根據資料庫中的實際影廳類型值進行判斷
-            if (type != null && (type.equalsIgnoreCase(BIG_THEATER_TYPE) || type.contains("大") || type.contains("A"))) {
-                System.out.println("創建大廳座位配置");
-                createBigRoomSeats();
-                updateTheaterInfoLabel("大廳 (VIP影廳 - " + type + ")");
-            } else if (type != null && (type.equalsIgnoreCase(SMALL_THEATER_TYPE) || type.contains("小") || type.contains("B"))) {
-                System.out.println("創建小廳座位配置");
-                createSmallRoomSeats();
-                updateTheaterInfoLabel("小廳 (標準影廳 - " + type + ")");
+            SeatLayout layout = theater != null ? theaterService.getSeatLayout(theater.getUid()) : null;
+            if (layout != null && layout.size() > 0) {
+                seatMap = new SeatMapCanvas(layout);
+                // 座位圖先以停用狀態顯示，已預訂座位在背景載入後再開放選取
+                seatMap.setEnabled(false);
+                seatMap.setSeatClickListener(this::handleSeatClicked);
+                seatsScrollPane.setViewportView(seatMap);
+                // 有專屬座位配置的影廳直接顯示類型，沿用大廳 / 小廳配置的影廳標示所用的配置
+                String roomName = layout.getName().equals(type) ? type
+                        : TheaterService.isBigRoom(type) ? "大廳 (VIP影廳 - " + type + ")" : "小廳 (標準影廳 - " + type + ")";
+                updateTheaterInfoLabel(roomName + " - 共" + layout.getRowCount() + "排，每排最多" + layout.getMaxSeatNumber() + "個座位");
             } else {
-                System.out.println("無法識別的影廳類型: '" + type + "'，使用預設小廳配置");
-                createSmallRoomSeats();
-                updateTheaterInfoLabel("標準影廳 (未識別類型 - " + (type != null ? type : "未知") + ")");
+                System.out.println("無法取得影廳座位配置: '" + type + "'");
+                seatsScrollPane.setViewportView(new JLabel("無法載入座位配置"));
+                updateTheaterInfoLabel("未知影廳 (" + (type != null ? type : "未知") + ")");
             }
         }
         
+        // 先訂閱再載入，載入期間發生的變動會在載入完成後補上
+        subscribeSeatEvents();
+        loadReservedSeats();
+        
         // 增加座位圖例
         JPanel legendPanel = createLegendPanel();
         add(legendPanel, BorderLayout.EAST);
@@ -142,12 +149,26 @@ public class SeatSelectionPanel extends JPanel {
         legendPanel.setBorder(BorderFactory.createTitledBorder("圖例"));
         
         // 圖例條目
-        addLegendItem(legendPanel, standardSeatColor, "標準座位");
-        addLegendItem(legendPanel, blueSeatColor, "藍區座位");
-        addLegendItem(legendPanel, yellowSeatColor, "黃區座位");
-        addLegendItem(legendPanel, redSeatColor, "紅區座位");
-        addLegendItem(legendPanel, selectedSeatColor, "已選擇");
-        addLegendItem(legendPanel, reservedSeatColor, "已訂位");
+        addLegendItem(legendPanel, SeatMapCanvas.STANDARD_SEAT_COLOR, "標準座位");
+        addLegendItem(legendPanel, SeatMapCanvas.BLUE_SEAT_COLOR, "藍區座位");
+        addLegendItem(legendPanel, SeatMapCanvas.YELLOW_SEAT_COLOR, "黃區座位");
+        addLegendItem(legendPanel, SeatMapCanvas.RED_SEAT_COLOR, "紅區座位");
+        addLegendItem(legendPanel, SeatMapCanvas.SELECTED_SEAT_COLOR, "已選擇");
+        addLegendItem(legendPanel, SeatMapCanvas.RESERVED_SEAT_COLOR, "已訂位");
+        addLegendItem(legendPanel, SeatMapCanvas.HELD_SEAT_COLOR, "保留中");
+        
+        // 縮放座位圖，也可按住 Ctrl 捲動滑鼠滾輪
+        if (seatMap != null) {
+            JPanel zoomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            JButton zoomOutButton = new JButton("－");
+            zoomOutButton.addActionListener(e -> seatMap.setZoom(seatMap.getZoom() * 0.8));
+            JButton zoomInButton = new JButton("＋");
+            zoomInButton.addActionListener(e -> seatMap.setZoom(seatMap.getZoom() * 1.25));
+            zoomPanel.add(new JLabel("縮放"));
+            zoomPanel.add(zoomOutButton);
+            zoomPanel.add(zoomInButton);
+            legendPanel.add(zoomPanel);
+        }
         
         return legendPanel;
     }
@@ -168,159 +189,181 @@ public class SeatSelectionPanel extends JPanel {
     }
     
     /**
-     * 從資料庫載入已預訂座位
+     * 在背景從資料庫載入已預訂與其他會員保留中的座位，完成後更新座位狀態
      */
     private void loadReservedSeats() {
-        if (selectedShowtime != null) {
-            List<String> bookedSeats = reservationService.getBookedSeatsForShowtime(selectedShowtime.getUid());
-            reservedSeats.addAll(bookedSeats);
+        if (selectedShowtime == null || seatMap == null) {
+            return;
         }
+        int showtimeUid = selectedShowtime.getUid();
+        occupancyLoad.submit(() -> {
+            Collection<String> booked = reservationService.getBookedSeatsForShowtime(showtimeUid);
+            Collection<String> held = memberUid > 0
+                    ? reservationService.getSeatsHeldByOthers(showtimeUid, memberUid) : Collections.<String>emptySet();
+            return Arrays.asList(booked, held);
+        }, seats -> applySeatStates(seats.get(0), seats.get(1)), error -> {
+            System.err.println("載入座位狀態時發生錯誤: " + error.getMessage());
+            // 座位圖維持停用，不會再套用事件，停止接收以免佇列持續累積
+            seatStatesFailed = true;
+            unsubscribeSeatEvents();
+            updateTheaterInfoLabel("無法載入座位狀態，請重新選擇場次");
+        });
     }
-    
+
     /**
-     * 設置座位選擇後的回調
+     * 標示已預訂與保留中的座位，其餘座位開放選取
      */
-    public void setSeatSelectionCallback(SeatSelectionCallback callback) {
-        this.callback = callback;
+    private void applySeatStates(Collection<String> reserved, Collection<String> held) {
+        SeatLayout layout = seatMap.getLayoutModel();
+        for (String seatId : held) {
+            int index = layout.indexOf(seatId);
+            if (index >= 0) {
+                seatMap.setSeatState(index, SeatMapCanvas.HELD);
+            }
+        }
+        // 已預訂優先於保留中
+        for (String seatId : reserved) {
+            int index = layout.indexOf(seatId);
+            if (index >= 0) {
+                seatMap.setSeatState(index, SeatMapCanvas.RESERVED);
+            }
+        }
+        seatMap.setEnabled(true);
+        flushSeatEvents();
     }
-    
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        subscribeSeatEvents();
+    }
+
     /**
-     * 獲取當前選擇的座位列表
+     * 面板從畫面移除（例如選位視窗關閉）時取消訂閱
      */
-    public List<String> getSelectedSeats() {
-        return new ArrayList<>(selectedSeats);
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+        unsubscribeSeatEvents();
     }
-    
+
+    private void subscribeSeatEvents() {
+        if (!subscribed && !seatStatesFailed && selectedShowtime != null && seatMap != null) {
+            SeatEventBus.getInstance().subscribe(selectedShowtime.getUid(), seatEventListener);
+            subscribed = true;
+        }
+    }
+
     /**
-     * 創建大廳座位配置
-     * 根據 big_room.json 資料建立座位
+     * 取消訂閱並捨棄尚未套用的事件
      */
-    private void createBigRoomSeats() {
-        seatsPanel.removeAll();
-        
-        // 使用 GridBagLayout 以實現更靈活的布局
-        seatsPanel.setLayout(new GridBagLayout());
-        GridBagConstraints gbc = new GridBagConstraints();
-        
-        int maxRows = 13; // A-M
-        int maxCols = 38; // 1-38
-        
-        // 添加列標題（數字）
-        gbc.gridy = 0;
-        gbc.anchor = GridBagConstraints.CENTER;
-        for (int col = 1; col <= maxCols; col++) {
-            gbc.gridx = col;
-            if (col % 5 == 0) { // 每5列顯示一次列號
-                JLabel colLabel = new JLabel(String.valueOf(col));
-                colLabel.setFont(new Font("SansSerif", Font.BOLD, 10));
-                colLabel.setForeground(Color.DARK_GRAY);
-                seatsPanel.add(colLabel, gbc);
-            }
+    private void unsubscribeSeatEvents() {
+        if (subscribed) {
+            SeatEventBus.getInstance().unsubscribe(selectedShowtime.getUid(), seatEventListener);
+            subscribed = false;
         }
-        
-        // 建立所有座位
-        for (int row = 0; row < maxRows; row++) {
-            char rowChar = (char) ('A' + row);
-            
-            // 添加行標題（字母）
-            gbc.gridx = 0;
-            gbc.gridy = row + 1;
-            JLabel rowLabel = new JLabel(String.valueOf(rowChar));
-            rowLabel.setFont(new Font("SansSerif", Font.BOLD, 12));
-            rowLabel.setForeground(Color.DARK_GRAY);
-            seatsPanel.add(rowLabel, gbc);
-            
-            for (int col = 1; col <= maxCols; col++) {
-                gbc.gridx = col;
-                String seatId = rowChar + "-" + col;
-                
-                // 根據座位位置判斷區域
-                String region = getBigRoomSeatRegion(rowChar, col);
-                
-                // 如果不是有效座位，添加無效座位標記
-                if (region.equals("invalid")) {
-                    JPanel invalidSeat = new JPanel();
-                    invalidSeat.setPreferredSize(new Dimension(SEAT_SIZE, SEAT_SIZE));
-                    invalidSeat.setBackground(invalidSeatColor);
-                    invalidSeat.setBorder(null);
-                    seatsPanel.add(invalidSeat, gbc);
-                } else {
-                    // 創建座位按鈕
-                    JToggleButton seatButton = createSeatButton(seatId, region);
-                    seatsPanel.add(seatButton, gbc);
-                }
-            }
+        seatEventTimer.stop();
+        pendingSeatEvents.clear();
+        seatEventFlushScheduled.set(false);
+    }
+
+    /**
+     * 在發布者的執行緒上呼叫：只排入佇列，並在尚未排程時啟動合併計時器
+     */
+    private void enqueueSeatEvent(SeatEventBus.SeatEvent event) {
+        // 自己的選位保留已反映在座位圖上
+        if (memberUid > 0 && event.getMemberUid() == memberUid
+                && (event.getType() == SeatEventBus.Type.HELD || event.getType() == SeatEventBus.Type.UNHELD)) {
+            return;
+        }
+        pendingSeatEvents.add(event);
+        if (seatEventFlushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(seatEventTimer::restart);
         }
-        
-        seatsPanel.revalidate();
-        seatsPanel.repaint();
     }
-    
+
     /**
-     * 創建小廳座位配置
-     * 根據 small_room.json 資料建立座位
+     * 合併佇列中的事件，每個座位只套用最終的訂位與保留狀態
+     * 座位狀態尚未載入時保留事件，待載入完成後再套用
      */
-    private void createSmallRoomSeats() {
-        seatsPanel.removeAll();
-        
-        // 使用 GridBagLayout 以實現更靈活的布局
-        seatsPanel.setLayout(new GridBagLayout());
-        GridBagConstraints gbc = new GridBagConstraints();
-        
-        int maxRows = 9; // A-I
-        int maxCols = 16; // 1-16
-        
-        // 添加列標題（數字）
-        gbc.gridy = 0;
-        gbc.anchor = GridBagConstraints.CENTER;
-        for (int col = 1; col <= maxCols; col++) {
-            gbc.gridx = col;
-            JLabel colLabel = new JLabel(String.valueOf(col));
-            colLabel.setFont(new Font("SansSerif", Font.BOLD, 10));
-            colLabel.setForeground(Color.DARK_GRAY);
-            seatsPanel.add(colLabel, gbc);
+    private void flushSeatEvents() {
+        if (seatMap == null || !seatMap.isEnabled()) {
+            return;
         }
-        
-        // 建立所有座位
-        for (int row = 0; row < maxRows; row++) {
-            char rowChar = (char) ('A' + row);
-            
-            // 添加行標題（字母）
-            gbc.gridx = 0;
-            gbc.gridy = row + 1;
-            JLabel rowLabel = new JLabel(String.valueOf(rowChar));
-            rowLabel.setFont(new Font("SansSerif", Font.BOLD, 12));
-            rowLabel.setForeground(Color.DARK_GRAY);
-            seatsPanel.add(rowLabel, gbc);
-            
-            for (int col = 1; col <= maxCols; col++) {
-                gbc.gridx = col;
-                String seatId = rowChar + "-" + col;
-                
-                // 在小廳中添加一些間隔來模擬過道
-                if (col == 4 || col == 13) {
-                    // 過道位置
-                    JPanel aisle = new JPanel();
-                    aisle.setPreferredSize(new Dimension(SEAT_SIZE/2, SEAT_SIZE));
-                    aisle.setBackground(invalidSeatColor);
-                    aisle.setBorder(null);
-                    seatsPanel.add(aisle, gbc);
-                } else {
-                    // 根據位置確定座位區域
-                    String region = getSmallRoomSeatRegion(rowChar, col);
-                    
-                    // 創建座位按鈕
-                    JToggleButton seatButton = createSeatButton(seatId, region);
-                    seatsPanel.add(seatButton, gbc);
+        seatEventFlushScheduled.set(false);
+        Map<String, Boolean> bookedChanges = new HashMap<>();
+        Map<String, Boolean> heldChanges = new HashMap<>();
+        SeatEventBus.SeatEvent event;
+        while ((event = pendingSeatEvents.poll()) != null) {
+            for (String seatNo : event.getSeatNos()) {
+                switch (event.getType()) {
+                    case BOOKED:
+                        bookedChanges.put(seatNo, true);
+                        break;
+                    case RELEASED:
+                        bookedChanges.put(seatNo, false);
+                        break;
+                    case HELD:
+                        heldChanges.put(seatNo, true);
+                        break;
+                    case UNHELD:
+                        heldChanges.put(seatNo, false);
+                        break;
                 }
             }
         }
-        
-        seatsPanel.revalidate();
-        seatsPanel.repaint();
-        
-        // 更新影廳信息標籤
-        updateTheaterInfoLabel("小廳 (標準影廳) - 共" + maxRows + "排，每排最多" + maxCols + "個座位");
+        if (bookedChanges.isEmpty() && heldChanges.isEmpty()) {
+            return;
+        }
+
+        SeatLayout layout = seatMap.getLayoutModel();
+        Set<String> changedSeats = new HashSet<>(bookedChanges.keySet());
+        changedSeats.addAll(heldChanges.keySet());
+        boolean selectionChanged = false;
+        for (String seatNo : changedSeats) {
+            int index = layout.indexOf(seatNo);
+            if (index < 0) {
+                continue;
+            }
+            byte state = seatMap.getSeatState(index);
+            Boolean booked = bookedChanges.get(seatNo);
+            if (Boolean.TRUE.equals(booked)) {
+                // 已選取的座位被訂走（例如保留到期後由他人訂購），從已選座位移除
+                if (state == SeatMapCanvas.SELECTED) {
+                    selectedSeats.remove(seatNo);
+                    selectionChanged = true;
+                }
+                state = SeatMapCanvas.RESERVED;
+            } else if (Boolean.FALSE.equals(booked) && state == SeatMapCanvas.RESERVED) {
+                state = SeatMapCanvas.AVAILABLE;
+            }
+            Boolean held = heldChanges.get(seatNo);
+            if (held != null && state != SeatMapCanvas.RESERVED && state != SeatMapCanvas.SELECTED) {
+                state = held ? SeatMapCanvas.HELD : SeatMapCanvas.AVAILABLE;
+            }
+            seatMap.setSeatState(index, state);
+        }
+
+        if (selectionChanged) {
+            updateSelectedSeatsPanel();
+            if (callback != null) {
+                callback.onSeatsSelected(getSelectedSeats());
+            }
+        }
+    }
+    
+    /**
+     * 設置座位選擇後的回調
+     */
+    public void setSeatSelectionCallback(SeatSelectionCallback callback) {
+        this.callback = callback;
+    }
+    
+    /**
+     * 獲取當前選擇的座位列表
+     */
+    public List<String> getSelectedSeats() {
+        return new ArrayList<>(selectedSeats);
     }
     
     /**
@@ -331,80 +374,37 @@ public class SeatSelectionPanel extends JPanel {
     }
     
     /**
-     * 創建單個座位按鈕
+     * 處理座位點擊：選取時先向服務保留座位，取消選取時釋放保留
      */
-    private JToggleButton createSeatButton(String seatId, String region) {
-        JToggleButton seatButton = new JToggleButton();
-        seatButton.setPreferredSize(new Dimension(SEAT_SIZE, SEAT_SIZE));
-        
-        // 顯示座位號碼
-        seatButton.setText(seatId);
-        seatButton.setFont(new Font("SansSerif", Font.PLAIN, 9));
-        seatButton.setMargin(new Insets(0, 0, 0, 0));
-        
-        // 根據座位區域設置顏色
-        switch (region) {
-            case "blue":
-                seatButton.setBackground(blueSeatColor);
-                break;
-            case "yellow":
-                seatButton.setBackground(yellowSeatColor);
-                break;
-            case "red":
-                seatButton.setBackground(redSeatColor);
-                break;
-            default:
-                seatButton.setBackground(standardSeatColor);
-                break;
+    private void handleSeatClicked(int seatIndex) {
+        String seatId = seatMap.getLayoutModel().labelAt(seatIndex);
+        if (seatMap.getSeatState(seatIndex) == SeatMapCanvas.SELECTED) {
+            selectedSeats.remove(seatId);
+            if (memberUid > 0) {
+                reservationService.releaseSeatHold(selectedShowtime.getUid(), memberUid, seatId);
+            }
+            seatMap.setSeatState(seatIndex, SeatMapCanvas.AVAILABLE);
+        } else {
+            // 被其他會員搶先保留時立即告知
+            if (memberUid > 0 && !reservationService.holdSeat(selectedShowtime.getUid(), memberUid, seatId)) {
+                seatMap.setSeatState(seatIndex, SeatMapCanvas.HELD);
+                JOptionPane.showMessageDialog(SeatSelectionPanel.this,
+                        "座位 " + seatId + " 已被其他會員保留或訂購，請選擇其他座位", "座位不可用", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            selectedSeats.add(seatId);
+            seatMap.setSeatState(seatIndex, SeatMapCanvas.SELECTED);
         }
         
-        // 如果座位已被預訂，設置為不可用
-        if (reservedSeats.contains(seatId)) {
-            seatButton.setEnabled(false);
-            seatButton.setBackground(reservedSeatColor);
-            seatButton.setText("X");
-        }
+        // 更新已選座位顯示區域
+        updateSelectedSeatsPanel();
         
-        // 添加座位選擇事件
-        seatButton.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (seatButton.isSelected()) {
-                    selectedSeats.add(seatId);
-                    // 增強選中效果：更亮的顏色與邊框
-                    seatButton.setBackground(selectedSeatColor);
-                    seatButton.setBorder(new LineBorder(Color.BLACK, 2));
-                    seatButton.setForeground(Color.WHITE);  // 白色文字增加對比度
-                } else {
-                    selectedSeats.remove(seatId);
-                    // 恢復原來的顏色和邊框
-                    if ("blue".equals(region)) {
-                        seatButton.setBackground(blueSeatColor);
-                    } else if ("yellow".equals(region)) {
-                        seatButton.setBackground(yellowSeatColor);
-                    } else if ("red".equals(region)) {
-                        seatButton.setBackground(redSeatColor);
-                    } else {
-                        seatButton.setBackground(standardSeatColor);
-                    }
-                    seatButton.setBorder(UIManager.getBorder("ToggleButton.border"));
-                    seatButton.setForeground(Color.BLACK);  // 恢復黑色文字
-                }
-                
-                // 更新已選座位顯示區域
-                updateSelectedSeatsPanel();
-                
-                // 如果有回調，通知上層組件
-                if (callback != null) {
-                    callback.onSeatsSelected(getSelectedSeats());
-                }
-            }
-        });
-        
-        seatButtons.put(seatId, seatButton);
-        return seatButton;
+        // 如果有回調，通知上層組件
+        if (callback != null) {
+            callback.onSeatsSelected(getSelectedSeats());
+        }
     }
-    
+
     /**
      * 更新已選擇座位的顯示
      */
@@ -430,52 +430,4 @@ public class SeatSelectionPanel extends JPanel {
         selectedSeatsPanel.revalidate();
         selectedSeatsPanel.repaint();
     }
-    
-    /**
-     * 大廳座位區域判斷邏輯
-     */
-    private String getBigRoomSeatRegion(char row, int col) {
-        // 檢查是否在有效範圍內
-        if (row < 'A' || row > 'M') return "invalid";
-        if (col < 1 || col > 38) return "invalid";
-        
-        // 大廳布局：
-        // 紅區：黃金中心區域 (H-J, 13-26)
-        // 黃區：次佳視野區 (F-L, 8-31)
-        // 藍區：標準視野區 (C-N, 5-34)
-        // 其餘為標準座位
-        
-        // 檢查是否為走道 - 大廳有三個走道
-        if (col == 9 || col == 20 || col == 30) {
-            return "invalid"; // 走道
-        }
-        
-        // 檢查是否為無效座位區域 - 例如角落或特殊區域
-        if ((row >= 'K' && col <= 6) || (row >= 'K' && col >= 33)) {
-            return "invalid"; // 角落無效區域
-        }
-        
-        // 判斷不同價格區域
-        if (row >= 'H' && row <= 'J' && col >= 13 && col <= 26) {
-            return "red"; // 紅區 - VIP座位
-        } else if (row >= 'F' && row <= 'L' && col >= 8 && col <= 31) {
-            return "yellow"; // 黃區 - 次佳座位
-        } else if (row >= 'C' && row <= 'N' && col >= 5 && col <= 34) {
-            return "blue"; // 藍區 - 標準優良座位
-        } else {
-            return "standard"; // 標準座位
-        }
-    }
-    
-    /**
-     * 小廳座位區域判斷邏輯
-     */
-    private String getSmallRoomSeatRegion(char row, int col) {
-        // 小廳只有藍區和標準區
-        if ((row >= 'D' && row <= 'F') && (col >= 5 && col <= 12)) {
-            return "blue"; // 中央較好的座位為藍區
-        } else {
-            return "standard"; // 其他為標準座位
-        }
-    }
 }
\ No newline at end of file
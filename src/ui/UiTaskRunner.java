@@ -0,0 +1,148 @@
+package ui;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Swing 面板的背景資料存取
+ * 查詢在有上限的背景執行緒池中執行，結果再交回 EDT 更新畫面，避免慢查詢凍結介面；每次呼叫記錄排隊與執行時間
+ * 同一個 Slot 一次只保留最新的請求：選取改變時舊請求尚未開始就直接取消，已在執行的則丟棄其結果
+ *
+ * <pre>
+ * private final UiTaskRunner.Slot showtimesLoad = UiTaskRunner.getInstance().newSlot("場次列表");
+ * showtimesLoad.submit(() -> showtimeService.getShowtimesByMovieId(movieId), this::showShowtimes);
+ * </pre>
+ */
+public class UiTaskRunner {
+    // 背景執行緒數與等待佇列上限，可用 -Dcinema.ui.loaderThreads / -Dcinema.ui.loaderQueue 調整
+    private static final int THREADS = Integer.getInteger("cinema.ui.loaderThreads", 4);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("cinema.ui.loaderQueue", 64);
+
+    private static final UiTaskRunner INSTANCE = new UiTaskRunner();
+
+    private final ThreadPoolExecutor executor;
+
+    private UiTaskRunner() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                task -> {
+                    Thread thread = new Thread(task, "ui-loader-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static UiTaskRunner getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 建立一個請求槽，新請求會取代同一槽中尚未完成的請求
+     * @param name 記錄延遲時使用的名稱
+     */
+    public Slot newSlot(String name) {
+        return new Slot(name);
+    }
+
+    /**
+     * 執行不需取代舊請求的工作（例如訂票等寫入），完成後在 EDT 呼叫 onSuccess 或 onError
+     */
+    public <T> void run(String name, Callable<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        execute(name, task, () -> true, onSuccess, onError);
+    }
+
+    /**
+     * 請求槽，只能在 EDT 上使用
+     */
+    public class Slot {
+        private final String name;
+        private Future<?> current;
+        private long sequence;
+
+        private Slot(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 以新請求取代目前的請求，失敗時只記錄錯誤
+         */
+        public <T> void submit(Callable<T> task, Consumer<T> onSuccess) {
+            submit(task, onSuccess, error -> {
+                System.err.println("載入" + name + "時發生錯誤: " + error.getMessage());
+                error.printStackTrace();
+            });
+        }
+
+        /**
+         * 以新請求取代目前的請求，完成後若仍是最新的請求，在 EDT 呼叫 onSuccess 或 onError
+         */
+        public <T> void submit(Callable<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            cancel();
+            long request = sequence;
+            current = execute(name, task, () -> request == sequence, onSuccess, onError);
+        }
+
+        /**
+         * 取消目前的請求；已在執行的查詢不會被中斷（避免中斷借出中的資料庫連線），但結果不會發布
+         */
+        public void cancel() {
+            sequence++;
+            if (current != null) {
+                current.cancel(false);
+                current = null;
+            }
+        }
+    }
+
+    private <T> Future<?> execute(String name, Callable<T> task, BooleanSupplier isCurrent,
+                                  Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        long submitted = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long started = System.nanoTime();
+                T result = null;
+                Throwable error = null;
+                try {
+                    result = task.call();
+                } catch (Throwable t) {
+                    error = t;
+                }
+                long finished = System.nanoTime();
+                System.out.printf("[UI] %s: %.1f ms (排隊 %.1f ms)%s%n", name,
+                        (finished - started) / 1e6, (started - submitted) / 1e6, error != null ? " 失敗" : "");
+
+                T published = result;
+                Throwable failure = error;
+                SwingUtilities.invokeLater(() -> {
+                    // 已被較新的請求取代，丟棄結果
+                    if (!isCurrent.getAsBoolean()) {
+                        return;
+                    }
+                    if (failure == null) {
+                        onSuccess.accept(published);
+                    } else {
+                        onError.accept(failure);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("背景工作已滿，無法載入" + name);
+            SwingUtilities.invokeLater(() -> {
+                if (isCurrent.getAsBoolean()) {
+                    onError.accept(e);
+                }
+            });
+            return null;
+        }
+    }
+}
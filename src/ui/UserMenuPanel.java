@@ -3,20 +3,17 @@ package ui;
 import model.Member;
 import model.Movie;
 import model.Reservation;
+import model.Review;
 import model.Showtime;
 import service.MovieService;
 import service.ReservationService;
 import service.ShowtimeService;
+import service.EntityContext;
 import exception.AgeRestrictionException;
 import exception.SeatUnavailableException;
-import util.DBUtil;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
-import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.text.ParseException;
 import java.util.Date;
@@ -28,9 +25,12 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class UserMenuPanel extends JPanel {
@@ -70,10 +70,22 @@ public class UserMenuPanel extends JPanel {
     };
 
     // 使用暫存評論的方式來顯示評論
+    private static final int REVIEW_PAGE_SIZE = 50;
+    private ScrollPager reviewsPager; // 捲動到底部時載入下一頁評論
+    private int reviewsMovieId = -1; // 目前顯示評論的電影
+    private int lastReviewId; // 已載入的最後一筆評論 id，作為下一頁的游標
     private List<String[]> temporaryReviews = new ArrayList<>(); // 暫存評論
     // 更新評論邏輯，確保每部電影有不同的留言串
     private Map<Integer, List<String[]>> movieReviews = new HashMap<>(); // 每部電影的評論暫存
 
+    // 資料庫查詢在背景執行，選取改變時取代尚未完成的舊請求
+    private final UiTaskRunner.Slot moviesLoad = UiTaskRunner.getInstance().newSlot("電影列表");
+    private final UiTaskRunner.Slot selectedMovieLoad = UiTaskRunner.getInstance().newSlot("電影資料");
+    private final UiTaskRunner.Slot showtimesLoad = UiTaskRunner.getInstance().newSlot("場次列表");
+    private final UiTaskRunner.Slot selectedShowtimeLoad = UiTaskRunner.getInstance().newSlot("場次資料");
+    private final UiTaskRunner.Slot reviewsLoad = UiTaskRunner.getInstance().newSlot("評論");
+    private final UiTaskRunner.Slot reservationsLoad = UiTaskRunner.getInstance().newSlot("訂票紀錄");
+
     public UserMenuPanel(CinemaBookingGUI mainGUI, ReservationService reservationService, MovieService movieService, ShowtimeService showtimeService, Member currentUser) {
         this.mainGUI = mainGUI;
         this.reservationService = reservationService;
@@ -130,7 +142,9 @@ public class UserMenuPanel extends JPanel {
             if (!e.getValueIsAdjusting() && moviesTable.getSelectedRow() != -1) {
                 int selectedRow = moviesTable.getSelectedRow();
                 int movieId = (int) moviesTableModel.getValueAt(selectedRow, 0);
-                selectedMovie = movieService.getMovieById(movieId).orElse(null); // Get full movie object
+                selectedMovie = null;
+                selectedMovieLoad.submit(() -> movieService.getMovieById(movieId).orElse(null), // Get full movie object
+                        movie -> selectedMovie = movie);
                 loadShowtimesForMovie(movieId);
                 clearBookingSelection(); // Clear previous showtime/seat selection
                 loadReviewsForMovie(movieId); // Load reviews for the selected movie
@@ -152,9 +166,15 @@ public class UserMenuPanel extends JPanel {
              if (!e.getValueIsAdjusting() && showtimesTable.getSelectedRow() != -1) {
                 int selectedRow = showtimesTable.getSelectedRow();
                 int showtimeId = (int) showtimesTableModel.getValueAt(selectedRow, 0);
-                selectedShowtime = showtimeService.getShowtimeById(showtimeId); // Directly get Showtime object
-                selectSeatsButton.setEnabled(selectedShowtime != null); // 啟用選擇座位按鈕
-                bookButton.setEnabled(selectedShowtime != null && !selectedSeats.isEmpty()); // 更新訂票按鈕狀態
+                // 場次載入完成前停用座位選擇與訂票
+                selectedShowtime = null;
+                selectSeatsButton.setEnabled(false);
+                bookButton.setEnabled(false);
+                selectedShowtimeLoad.submit(() -> showtimeService.getShowtimeById(showtimeId), showtime -> {
+                    selectedShowtime = showtime; // Directly get Showtime object
+                    selectSeatsButton.setEnabled(selectedShowtime != null); // 啟用選擇座位按鈕
+                    bookButton.setEnabled(selectedShowtime != null && !selectedSeats.isEmpty()); // 更新訂票按鈕狀態
+                });
              }
         });
         JScrollPane showtimesScrollPane = new JScrollPane(showtimesTable);
@@ -214,7 +234,7 @@ public class UserMenuPanel extends JPanel {
         }
         
         // 創建座位選擇面板
-        SeatSelectionPanel seatSelectionPanel = new SeatSelectionPanel(selectedShowtime, reservationService);
+        SeatSelectionPanel seatSelectionPanel = new SeatSelectionPanel(selectedShowtime, reservationService, currentUser.getUid());
         
         // 設置已選擇的座位
         if (!selectedSeats.isEmpty()) {
@@ -235,6 +255,14 @@ public class UserMenuPanel extends JPanel {
         dialog.setSize(800, 600);
         dialog.setLocationRelativeTo(this);
         dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        // 未確認就關閉視窗時釋放此次選位的保留
+        int showtimeUid = selectedShowtime.getUid();
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                reservationService.releaseSeatHolds(showtimeUid, currentUser.getUid());
+            }
+        });
         
         // 添加確認按鈕
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -277,40 +305,65 @@ public class UserMenuPanel extends JPanel {
     }
 
     private void loadMovies() {
-        moviesTableModel.setRowCount(0); // Clear existing data
-        List<Movie> movies = movieService.getAllMovies();
-        for (Movie movie : movies) {
-            moviesTableModel.addRow(new Object[]{
-                    movie.getUid(),
-                    movie.getName(),
-                    movie.getRating(),
-                    movie.getDuration(),
-                    movie.getDescription()
-            });
-        }
+        moviesLoad.submit(movieService::getAllMovies, movies -> {
+            moviesTableModel.setRowCount(0); // Clear existing data
+            for (Movie movie : movies) {
+                moviesTableModel.addRow(new Object[]{
+                        movie.getUid(),
+                        movie.getName(),
+                        movie.getRating(),
+                        movie.getDuration(),
+                        movie.getDescription()
+                });
+            }
+        });
     }
 
     private void loadShowtimesForMovie(int movieId) {
+        // 先清空，避免在新資料載入前選到上一部電影的場次
         showtimesTableModel.setRowCount(0); // Clear existing data
-        if (movieId <= 0) return;
+        if (movieId <= 0) {
+            showtimesLoad.cancel();
+            return;
+        }
+        showtimesLoad.submit(() -> buildShowtimeRows(movieId), rows -> {
+            showtimesTableModel.setRowCount(0);
+            for (Object[] row : rows) {
+                showtimesTableModel.addRow(row);
+            }
+        });
+    }
 
+    // 在背景執行緒查詢場次與剩餘座位，組成表格資料列
+    private List<Object[]> buildShowtimeRows(int movieId) {
+        List<Object[]> rows = new ArrayList<>();
         List<Showtime> showtimes = showtimeService.getShowtimesByMovieId(movieId);
+        // 各場次的訂票數以一次 GROUP BY 統計，不逐一載入座位
+        List<Integer> showtimeUids = new ArrayList<>();
         for (Showtime st : showtimes) {
-             // Calculate remaining seats (This might need optimization or a dedicated service method)
-             List<String> bookedSeats = reservationService.getBookedSeatsForShowtime(st.getUid());
-             int totalSeats = st.getTheater().getTotalSeats(); // Assuming Theater has capacity -> Changed to getTotalSeats
-             int availableSeats = totalSeats - bookedSeats.size();
-
-            showtimesTableModel.addRow(new Object[]{
-                    st.getUid(),
-                    st.getTheater().getType(), // Assuming Theater has name -> Changed to getType
-                    st.getShowTime(), // Consider formatting the date/time
-                    availableSeats + " / " + totalSeats
-            });
+            showtimeUids.add(st.getUid());
         }
+        Map<Integer, Integer> bookedCounts = reservationService.getBookedSeatCounts(showtimeUids);
+        // 以識別表批次載入關聯資料，避免每筆資料各自查詢
+        try (EntityContext context = EntityContext.open()) {
+            context.preloadShowtimes(showtimes);
+            for (Showtime st : showtimes) {
+                 int totalSeats = st.getTheater().getTotalSeats(); // Assuming Theater has capacity -> Changed to getTotalSeats
+                 int availableSeats = totalSeats - bookedCounts.getOrDefault(st.getUid(), 0);
+
+                rows.add(new Object[]{
+                        st.getUid(),
+                        st.getTheater().getType(), // Assuming Theater has name -> Changed to getType
+                        st.getShowTime(), // Consider formatting the date/time
+                        availableSeats + " / " + totalSeats
+                });
+            }
+        }
+        return rows;
     }
 
     private void clearBookingSelection() {
+        selectedShowtimeLoad.cancel();
         selectedShowtime = null;
         selectedSeats.clear(); // 清除已選座位
         showtimesTable.clearSelection();
@@ -333,29 +386,37 @@ public class UserMenuPanel extends JPanel {
             return;
         }
 
-        try {
-            // Call the booking service
-            String result = reservationService.bookTickets(currentUser.getUid(), selectedShowtime.getUid(), selectedSeats);
-
-            // Display result
-            JOptionPane.showMessageDialog(this, result, "訂票結果", JOptionPane.INFORMATION_MESSAGE);
-
-            // If successful, clear fields and refresh relevant data
-            if (result.startsWith("訂票成功")) {
-                selectedSeats.clear(); // 清除已選座位
-                updateSelectedSeatsDisplay(); // 更新顯示
-                loadShowtimesForMovie(selectedMovie.getUid()); // Refresh showtimes to show updated seat count
-                loadUserReservations(); // Refresh user's reservations list on the other tab
-                tabbedPane.setSelectedIndex(1); // Switch to reservations tab
-                bookButton.setEnabled(false); // 禁用訂票按鈕
-            }
-
-        } catch (IllegalArgumentException ex) {
-             JOptionPane.showMessageDialog(this, "訂票失敗: " + ex.getMessage(), "訂票失敗", JOptionPane.ERROR_MESSAGE);
-        } catch (Exception ex) { // Keep a general catch for other unexpected errors
-            JOptionPane.showMessageDialog(this, "訂票時發生未知錯誤: " + ex.getMessage(), "系統錯誤", JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
-        }
+        // Call the booking service in the background; 完成前停用訂票按鈕避免重複送出
+        int showtimeUid = selectedShowtime.getUid();
+        List<String> seats = new ArrayList<>(selectedSeats);
+        bookButton.setEnabled(false);
+        UiTaskRunner.getInstance().run("訂票",
+            () -> reservationService.bookTickets(currentUser.getUid(), showtimeUid, seats),
+            result -> {
+                // Display result
+                JOptionPane.showMessageDialog(this, result, "訂票結果", JOptionPane.INFORMATION_MESSAGE);
+
+                // If successful, clear fields and refresh relevant data
+                if (result.startsWith("訂票成功")) {
+                    selectedSeats.clear(); // 清除已選座位
+                    updateSelectedSeatsDisplay(); // 更新顯示
+                    loadShowtimesForMovie(selectedMovie != null ? selectedMovie.getUid() : -1); // Refresh showtimes to show updated seat count
+                    loadUserReservations(); // Refresh user's reservations list on the other tab
+                    tabbedPane.setSelectedIndex(1); // Switch to reservations tab
+                    bookButton.setEnabled(false); // 禁用訂票按鈕
+                } else {
+                    bookButton.setEnabled(selectedShowtime != null && !selectedSeats.isEmpty());
+                }
+            },
+            ex -> {
+                if (ex instanceof IllegalArgumentException) {
+                    JOptionPane.showMessageDialog(this, "訂票失敗: " + ex.getMessage(), "訂票失敗", JOptionPane.ERROR_MESSAGE);
+                } else { // Keep a general catch for other unexpected errors
+                    JOptionPane.showMessageDialog(this, "訂票時發生未知錯誤: " + ex.getMessage(), "系統錯誤", JOptionPane.ERROR_MESSAGE);
+                    ex.printStackTrace();
+                }
+                bookButton.setEnabled(selectedShowtime != null && !selectedSeats.isEmpty());
+            });
     }
 
 
@@ -415,6 +476,7 @@ public class UserMenuPanel extends JPanel {
         };
         JTable reviewTable = new JTable(reviewTableModel);
         JScrollPane reviewScrollPane = new JScrollPane(reviewTable);
+        reviewsPager = new ScrollPager(reviewScrollPane, this::loadNextReviewPage);
         reviewPanel.add(reviewScrollPane, BorderLayout.CENTER);
 
         // 新增評論區
@@ -431,14 +493,20 @@ public class UserMenuPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "評論內容不可為空", "評論錯誤", JOptionPane.WARNING_MESSAGE);
                 return;
             }
-            try {
-                reservationService.addReview(selectedMovie.getUid(), currentUser.getEmail(), reviewText); // 存入資料庫
+            int movieId = selectedMovie.getUid();
+            submitReviewButton.setEnabled(false);
+            UiTaskRunner.getInstance().run("提交評論", () -> {
+                reservationService.addReview(movieId, currentUser.getEmail(), reviewText); // 存入資料庫
+                return null;
+            }, ignored -> {
+                submitReviewButton.setEnabled(true);
                 reviewField.setText("");
                 JOptionPane.showMessageDialog(this, "評論已成功提交", "提交成功", JOptionPane.INFORMATION_MESSAGE);
-                loadReviewsForMovie(selectedMovie.getUid());
-            } catch (Exception ex) {
+                loadReviewsForMovie(movieId);
+            }, ex -> {
+                submitReviewButton.setEnabled(true);
                 JOptionPane.showMessageDialog(this, "提交評論時發生錯誤: " + ex.getMessage(), "提交失敗", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         });
         addReviewPanel.add(reviewField, BorderLayout.CENTER);
         addReviewPanel.add(submitReviewButton, BorderLayout.EAST);
@@ -450,55 +518,67 @@ public class UserMenuPanel extends JPanel {
 
     private void loadReviewsForMovie(int movieId) {
         reviewTableModel.setRowCount(0); // 清空現有評論
-        try {
-            // 首先檢查資料庫連線
-            try (Connection testConn = DBUtil.getConnection()) {
-                // 檢查 reviews 表是否存在
-                DatabaseMetaData metaData = testConn.getMetaData();
-                try (ResultSet rs = metaData.getTables(null, null, "reviews", null)) {
-                    if (!rs.next()) {
-                        // 如果表不存在，先創建它
-                        DBUtil.ensureReviewsTableExists();
-                    }
-                }
+        // 從資料庫分頁讀取評論，其餘頁面隨捲動載入；reviews 表由結構遷移建立
+        reviewsMovieId = movieId;
+        lastReviewId = 0;
+        reviewsPager.reset();
+    }
+
+    // 在背景載入目前電影的下一頁評論，完成時告知是否可能還有更多資料
+    private void loadNextReviewPage(Consumer<Boolean> onLoaded) {
+        int movieId = reviewsMovieId;
+        int afterId = lastReviewId;
+        reviewsLoad.submit(() -> reservationService.getReviewsPage(movieId, afterId, REVIEW_PAGE_SIZE), page -> {
+            for (Review review : page) {
+                reviewTableModel.addRow(new String[]{review.getUserEmail(), review.getReviewText()});
             }
-            
-            List<String[]> reviews = reservationService.getReviewsByMovieId(movieId); // 從資料庫讀取評論
-            for (String[] review : reviews) {
-                reviewTableModel.addRow(review);
+            if (!page.isEmpty()) {
+                lastReviewId = page.get(page.size() - 1).getId();
             }
-        } catch (SQLException e) {
-            System.err.println("資料庫連線錯誤: " + e.getMessage());
+            onLoaded.accept(page.size() == REVIEW_PAGE_SIZE);
+        }, error -> {
+            System.err.println("資料庫連線錯誤: " + error.getMessage());
             // 如果資料庫有問題，顯示預設訊息
             reviewTableModel.addRow(new String[]{"系統", "目前無法載入評論，請稍後再試"});
-        } catch (Exception ex) {
-            System.err.println("載入評論時發生錯誤: " + ex.getMessage());
-            ex.printStackTrace();
-            // 顯示錯誤訊息而不是彈出對話框
-            reviewTableModel.addRow(new String[]{"系統", "載入評論時發生錯誤: " + ex.getMessage()});
-        }
+            onLoaded.accept(false);
+        });
     }
 
     private void loadUserReservations() {
-        reservationsTableModel.setRowCount(0); // Clear existing data
+        reservationsLoad.submit(this::buildReservationRows, rows -> {
+            reservationsTableModel.setRowCount(0); // Clear existing data
+            for (Object[] row : rows) {
+                reservationsTableModel.addRow(row);
+            }
+        });
+    }
+
+    // 在背景執行緒查詢會員的訂票與關聯資料，組成表格資料列
+    private List<Object[]> buildReservationRows() {
+        List<Object[]> rows = new ArrayList<>();
         List<Reservation> reservations = reservationService.listReservationsByMember(currentUser.getUid());
 
-        for (Reservation res : reservations) {
-            Showtime st = res.getShowtime(); // Assuming Reservation has getShowtime()
-            Movie mv = (st != null) ? st.getMovie() : null; // Assuming Showtime has getMovie()
-            String movieName = (mv != null) ? mv.getName() : "N/A";
-            String theaterType = (st != null && st.getTheater() != null) ? st.getTheater().getType() : "N/A"; // Use getType
-            String showTimeStr = (st != null) ? st.getShowTime().toString() : "N/A"; // Consider formatting
-
-            reservationsTableModel.addRow(new Object[]{
-                    res.getUid(),
-                    movieName,
-                    theaterType, // Use getType
-                    showTimeStr,
-                    String.join(", ", res.getSeatNumbers()),
-                    res.getStatus()
-            });
+        // 以識別表批次載入關聯資料，避免每筆資料各自查詢
+        try (EntityContext context = EntityContext.open()) {
+            context.preloadReservations(reservations);
+            for (Reservation res : reservations) {
+                Showtime st = res.getShowtime(); // Assuming Reservation has getShowtime()
+                Movie mv = (st != null) ? st.getMovie() : null; // Assuming Showtime has getMovie()
+                String movieName = (mv != null) ? mv.getName() : "N/A";
+                String theaterType = (st != null && st.getTheater() != null) ? st.getTheater().getType() : "N/A"; // Use getType
+                String showTimeStr = (st != null) ? st.getShowTime().toString() : "N/A"; // Consider formatting
+
+                rows.add(new Object[]{
+                        res.getUid(),
+                        movieName,
+                        theaterType, // Use getType
+                        showTimeStr,
+                        String.join(", ", res.getSeatNumbers()),
+                        res.getStatus()
+                });
+            }
         }
+        return rows;
     }
 
     private void handleCancelReservation() {
@@ -0,0 +1,278 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有上限的 JDBC 連線池
+ * 借出的連線為代理物件，呼叫 close() 時會歸還至池中而非真正關閉
+ */
+public class ConnectionPool {
+    private final String url;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final ConnectionCustomizer customizer;
+
+    private final BlockingQueue<Connection> idleConnections = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger createdCount = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param url JDBC 連線字串
+     * @param maxSize 同時借出的最大連線數
+     * @param acquireTimeoutMillis 等待可用連線的逾時時間（毫秒）
+     * @param validationTimeoutSeconds 驗證閒置連線時的逾時時間（秒）
+     * @param customizer 建立實體連線後執行的初始化（可為 null）
+     */
+    public ConnectionPool(String url, int maxSize, long acquireTimeoutMillis, int validationTimeoutSeconds,
+                          ConnectionCustomizer customizer) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("連線池大小必須大於 0");
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.customizer = customizer;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * 從池中借出一條連線，必要時建立新的實體連線
+     * @return 關閉時會自動歸還的連線
+     * @throws SQLException 等待逾時或無法建立連線
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待資料庫連線時被中斷", e);
+        }
+        recordWait(System.nanoTime() - start);
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLTimeoutException("等待資料庫連線逾時 (" + acquireTimeoutMillis + " ms)，目前狀態: " + getStats());
+        }
+
+        try {
+            Connection physical;
+            while ((physical = idleConnections.poll()) != null) {
+                if (isUsable(physical)) {
+                    break;
+                }
+                discard(physical);
+            }
+            if (physical == null) {
+                physical = createPhysical();
+            }
+            activeCount.incrementAndGet();
+            borrowCount.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 取得目前連線池的使用統計
+     */
+    public Stats getStats() {
+        return new Stats(maxSize, activeCount.get(), idleConnections.size(), createdCount.get(),
+                borrowCount.get(), timeoutCount.get(), totalWaitNanos.get(), maxWaitNanos.get());
+    }
+
+    private Connection createPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url);
+        if (customizer != null) {
+            try {
+                customizer.customize(physical);
+            } catch (SQLException e) {
+                physical.close();
+                throw e;
+            }
+        }
+        createdCount.incrementAndGet();
+        return physical;
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private boolean isUsable(Connection physical) {
+        try {
+            return !physical.isClosed() && physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection physical) {
+        createdCount.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 歸還實體連線：關閉遺留的 Statement、回復自動提交，失敗則直接丟棄
+     */
+    private void release(Connection physical, List<Statement> statements) {
+        try {
+            for (Statement statement : statements) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // 已關閉或無法關閉的 Statement 不影響連線回收
+                }
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            idleConnections.offer(physical);
+        } catch (SQLException e) {
+            discard(physical);
+        } finally {
+            activeCount.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    /**
+     * 攔截 close() 以歸還連線，並追蹤此次借出期間建立的 Statement
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean closed;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!closed) {
+                    closed = true;
+                    release(physical, statements);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return closed || physical.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "PooledConnection[" + physical + (closed ? ", returned" : "") + "]";
+            }
+            if (closed) {
+                throw new SQLException("連線已歸還至連線池，無法再使用");
+            }
+            try {
+                Object result = method.invoke(physical, args);
+                if (result instanceof Statement) {
+                    statements.add((Statement) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 實體連線建立後的初始化動作，例如套用 PRAGMA
+     */
+    public interface ConnectionCustomizer {
+        void customize(Connection conn) throws SQLException;
+    }
+
+    /**
+     * 連線池統計快照
+     */
+    public static class Stats {
+        private final int maxSize;
+        private final int active;
+        private final int idle;
+        private final int created;
+        private final long borrowCount;
+        private final long timeoutCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        Stats(int maxSize, int active, int idle, int created, long borrowCount,
+              long timeoutCount, long totalWaitNanos, long maxWaitNanos) {
+            this.maxSize = maxSize;
+            this.active = active;
+            this.idle = idle;
+            this.created = created;
+            this.borrowCount = borrowCount;
+            this.timeoutCount = timeoutCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getCreated() { return created; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getTotalWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos); }
+        public long getMaxWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos); }
+
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool [max=%d, active=%d, idle=%d, created=%d, borrows=%d, timeouts=%d, avgWait=%.3f ms, maxWait=%d ms]",
+                    maxSize, active, idle, created, borrowCount, timeoutCount, getAverageWaitMillis(), getMaxWaitMillis());
+        }
+    }
+}
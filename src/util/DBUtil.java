@@ -2,26 +2,72 @@ package util;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 import org.mindrot.jbcrypt.BCrypt;
 
 public class DBUtil {
     private static final String URL = "jdbc:sqlite:cinema_booking.db";
 
+    // SQLite 舊版單一語句最多 999 個參數，IN 清單需依此分段
+    public static final int MAX_IN_PARAMS = 500;
+
+    // 連線池設定，可透過 -Dcinema.db.pool.size 等系統屬性調整
+    private static final int POOL_SIZE = Integer.getInteger("cinema.db.pool.size", 8);
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = Long.getLong("cinema.db.pool.acquireTimeoutMs", 5000L);
+    private static final int POOL_VALIDATION_TIMEOUT_SEC = Integer.getInteger("cinema.db.pool.validationTimeoutSec", 2);
+
+    // PRAGMA 設定組合："throughput"（預設）或 "durable"，以 -Dcinema.db.profile 指定
+    private static final PragmaProfile PRAGMA_PROFILE = PragmaProfile.fromName(System.getProperty("cinema.db.profile"));
+
+    // 以 -Dcinema.db.verifyQueryPlans=true 啟動時，遷移後若熱門查詢未以索引定位即中止啟動
+    private static final boolean VERIFY_QUERY_PLANS = Boolean.getBoolean("cinema.db.verifyQueryPlans");
+
+    private static final ConnectionPool POOL;
+
     static {
         try {
             Class.forName("org.sqlite.JDBC");
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("Failed to load SQLite JDBC driver", e);
         }
+        POOL = new ConnectionPool(URL, POOL_SIZE, POOL_ACQUIRE_TIMEOUT_MS, POOL_VALIDATION_TIMEOUT_SEC,
+                PRAGMA_PROFILE::apply);
     }
 
+    /**
+     * 從連線池借出連線，使用完畢後 close() 即歸還
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL);
+        return POOL.borrow();
+    }
+
+    /**
+     * 產生 IN 清單或 VALUES 使用的參數佔位符，例如 "?, ?, ?"
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 取得連線池統計（使用中 / 閒置 / 等待時間）
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * 取得目前套用於所有連線的 PRAGMA 設定組合
+     */
+    public static PragmaProfile getPragmaProfile() {
+        return PRAGMA_PROFILE;
     }
 
     /**
@@ -36,6 +82,14 @@ public class DBUtil {
             conn.createStatement().execute("DROP TABLE IF EXISTS movie;");
             conn.createStatement().execute("DROP TABLE IF EXISTS member;");
             conn.createStatement().execute("DROP TABLE IF EXISTS reviews;"); // 新增清除評論表
+            conn.createStatement().execute("DROP TABLE IF EXISTS import_fingerprint;"); // 指紋需與電影資料一起清除，否則不會重新匯入
+            SchemaMigrator.resetVersion(conn); // 資料表重建後需重新套用遷移
+            service.SeatOccupancyCache.getInstance().invalidateAll();
+            service.SeatHoldService.getInstance().clearAll();
+            service.AvailabilityReconciler.getInstance().markAllDirty();
+            dao.ShowtimeDAO.invalidateScheduleIndex();
+            service.CatalogCache.getInstance().invalidateAll();
+            service.TheaterService.invalidate();
             System.out.println("Database cleared successfully.");
         } catch (SQLException e) {
             e.printStackTrace();
@@ -101,6 +155,9 @@ public class DBUtil {
                 // conn.createStatement().execute(createSeatTable);
                 conn.createStatement().execute(createShowtimeTable);
                 conn.createStatement().execute(createReservationTable);
+                // 套用索引等結構遷移
+                SchemaMigrator.migrate(conn);
+                requireIndexedQueryPlans(conn);
 
                 String insertTheaters = "INSERT OR IGNORE INTO theater (type, total_seats) VALUES (?, ?)";
                 try (PreparedStatement stmt = conn.prepareStatement(insertTheaters)) {
@@ -114,6 +171,7 @@ public class DBUtil {
 
                     stmt.executeBatch();
                 }
+                service.TheaterService.invalidate(); // 預設影廳直接寫入資料表
 
                 // Insert default movies
                 String insertMovies = "INSERT OR IGNORE INTO movie (name, duration, description, rating) VALUES (?, ?, ?, ?)";
@@ -156,6 +214,7 @@ public class DBUtil {
 
                     stmt.executeBatch();
                 }
+                service.CatalogCache.getInstance().invalidateAll(); // 預設電影直接寫入資料表
 
                 // 移除舊的 insertAdmin 預設管理員，僅保留以下 upsert:
                 String adminUpsert = "INSERT INTO member (email, password, birth_date) VALUES (?, ?, ?) " +
@@ -228,6 +287,48 @@ public class DBUtil {
         }
     }
 
+    /**
+     * 對既有資料庫套用尚未執行的結構遷移
+     */
+    public static void migrateSchema() {
+        try (Connection conn = getConnection()) {
+            SchemaMigrator.migrate(conn);
+            requireIndexedQueryPlans(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Schema migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 啟用 cinema.db.verifyQueryPlans 時檢查熱門查詢的執行計畫，有需掃描的查詢則拋出例外
+     */
+    private static void requireIndexedQueryPlans(Connection conn) throws SQLException {
+        if (!VERIFY_QUERY_PLANS) {
+            return;
+        }
+        List<String> scans = SchemaMigrator.findScans(conn);
+        if (!scans.isEmpty()) {
+            throw new IllegalStateException("熱門查詢未以索引定位: " + String.join("; ", scans));
+        }
+    }
+
+    /**
+     * 以 EXPLAIN QUERY PLAN 檢查熱門查詢是否仍使用索引
+     * @return 若所有熱門查詢都以索引定位則返回 true
+     */
+    public static boolean verifyQueryPlans() {
+        try (Connection conn = getConnection()) {
+            List<String> scans = SchemaMigrator.findScans(conn);
+            for (String scan : scans) {
+                System.err.println("未以索引定位: " + scan);
+            }
+            return scans.isEmpty();
+        } catch (SQLException e) {
+            System.err.println("Error checking query plans: " + e.getMessage());
+            return false;
+        }
+    }
+
     public static void ensureReviewsTableExists() {
         try (Connection conn = getConnection()) {
             DatabaseMetaData metaData = conn.getMetaData();
@@ -273,5 +374,8 @@ public class DBUtil {
         initializeDatabase();
         ensureReviewsTableExists();
         System.out.println("Database initialized successfully.");
+        System.out.println("Query plans use indexes: " + verifyQueryPlans());
+        System.out.println("PRAGMA profile: " + PRAGMA_PROFILE + " " + PRAGMA_PROFILE.getPragmas());
+        System.out.println(getPoolStats());
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package util;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 計算匯入來源檔與資料的 SHA-256 指紋（十六進位字串）
+ */
+public class FingerprintUtil {
+    // 欄位分隔字元，避免 ("ab", "c") 與 ("a", "bc") 得到相同指紋
+    private static final char FIELD_SEPARATOR = '\u001F';
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 以串流方式計算整個檔案的指紋
+     */
+    public static String ofFile(String filePath) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filePath))) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * 計算多個欄位組成的一筆資料的指紋，null 與空字串視為相同
+     */
+    public static String ofFields(Object... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (Object field : fields) {
+            if (field != null) {
+                sb.append(field);
+            }
+            sb.append(FIELD_SEPARATOR);
+        }
+        return toHex(sha256().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 Java 平台都必須支援 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
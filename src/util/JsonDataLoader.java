@@ -1,21 +1,34 @@
 package util;
 
 import model.Movie;
-import model.Theater;
+import model.SeatLayout;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 工具類別用於從JSON檔案載入電影和影廳資訊
+ * 以 JsonReader 串流解析，逐筆產生電影或座位，不需將整個檔案讀入記憶體
  */
 public class JsonDataLoader {
 
+    /**
+     * 逐筆座位的回調，避免為每個座位建立 Map
+     */
+    public interface SeatHandler {
+        void seat(String row, int seatNum, String region);
+    }
+
     /**
      * 從JSON檔案載入電影資訊
      * @param filePath JSON檔案路徑
@@ -23,168 +36,181 @@ public class JsonDataLoader {
      */
     public static List<Movie> loadMoviesFromJson(String filePath) {
         List<Movie> movies = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            StringBuilder jsonContent = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonContent.append(line.trim());
-            }
-            
-            // 非常簡單的解析，不處理複雜JSON格式
-            String content = jsonContent.toString();
-            // 移除開頭的 [ 和結尾的 ]
-            content = content.substring(1, content.length() - 1);
-            
-            // 依據 },{ 分割成電影資料
-            String[] movieJsons = content.split("\\},\\{");
-            
-            for (int i = 0; i < movieJsons.length; i++) {
-                String movieJson = movieJsons[i];
-                // 處理第一個和最後一個特殊情況
-                if (i == 0) {
-                    movieJson = movieJson + "}";
-                } else if (i == movieJsons.length - 1) {
-                    movieJson = "{" + movieJson;
-                } else {
-                    movieJson = "{" + movieJson + "}";
-                }
-                
-                // 解析電影資訊
-                String title = extractJsonValue(movieJson, "title_zh");
-                int duration = Integer.parseInt(extractJsonValue(movieJson, "length"));
-                String summary = extractJsonValue(movieJson, "summary");
-                String classification = extractJsonValue(movieJson, "classification");
-                
-                // 建立電影物件
-                Movie movie = new Movie(0, title, duration, summary, classification);
-                movies.add(movie);
-            }
+        try {
+            forEachMovie(filePath, movies::add);
         } catch (IOException e) {
             System.err.println("Error loading movies from JSON: " + e.getMessage());
             e.printStackTrace();
         }
-
         return movies;
     }
 
     /**
-     * 從JSON檔案載入大廳和小廳的座位資訊
-     * @param bigRoomPath 大廳JSON檔案路徑
-     * @param smallRoomPath 小廳JSON檔案路徑
-     * @return 映射包含大廳和小廳的座位資訊
+     * 串流讀取電影檔，每解析完一部電影就交給 consumer
+     * 欄位對應：title_zh → 名稱、length → 片長、summary → 簡介、classification → 分級，其餘欄位略過
      */
-    public static Map<String, List<Map<String, Object>>> loadTheaterSeatsFromJson(String bigRoomPath, String smallRoomPath) {
-        Map<String, List<Map<String, Object>>> theaters = new HashMap<>();
-        
-        // 載入大廳座位
-        List<Map<String, Object>> bigRoomSeats = loadSeatsFromFile(bigRoomPath, true);
-        theaters.put("大廳", bigRoomSeats);
-        
-        // 載入小廳座位
-        List<Map<String, Object>> smallRoomSeats = loadSeatsFromFile(smallRoomPath, false);
-        theaters.put("小廳", smallRoomSeats);
-        
-        return theaters;
+    public static void forEachMovie(String filePath, Consumer<Movie> consumer) throws IOException {
+        try (JsonReader reader = open(filePath)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String title = null;
+                int duration = 0;
+                String summary = "";
+                String classification = "";
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (reader.peek() == JsonReader.Token.NULL) {
+                        reader.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "title_zh":
+                            title = reader.nextString();
+                            break;
+                        case "length":
+                            duration = reader.nextInt();
+                            break;
+                        case "summary":
+                            summary = reader.nextString();
+                            break;
+                        case "classification":
+                            classification = reader.nextString();
+                            break;
+                        default:
+                            reader.skipValue();
+                            break;
+                    }
+                }
+                reader.endObject();
+                if (title == null || title.isEmpty()) {
+                    System.err.println("略過缺少 title_zh 的電影資料");
+                    continue;
+                }
+                consumer.accept(new Movie(0, title, duration, summary, classification));
+            }
+            reader.endArray();
+        }
     }
-    
+
     /**
-     * 從檔案載入座位資訊
-     * @param filePath 檔案路徑
-     * @param hasRegions 是否包含區域資訊
-     * @return 座位資訊列表
+     * 列出要匯入的影廳與其座位檔
+     * 傳入目錄時，目錄下每個 .json 檔案為一個影廳，影廳類型為去除副檔名的檔名；
+     * 傳入檔案時視為清單檔，格式為 [{"type": "大廳", "layout": "big_room.json"}, ...]，座位檔路徑相對於清單檔所在目錄
+     * @param manifestOrDirectory 清單檔或座位檔目錄
+     * @return 影廳類型 → 座位檔路徑，依清單順序（目錄則依檔名排序）
      */
-    private static List<Map<String, Object>> loadSeatsFromFile(String filePath, boolean hasRegions) {
-        List<Map<String, Object>> seats = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            StringBuilder jsonContent = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonContent.append(line.trim());
+    public static Map<String, String> loadTheaterLayoutFiles(String manifestOrDirectory) throws IOException {
+        Map<String, String> layoutFiles = new LinkedHashMap<>();
+        File source = new File(manifestOrDirectory);
+        if (source.isDirectory()) {
+            File[] files = source.listFiles((dir, name) -> name.endsWith(".json"));
+            if (files == null) {
+                throw new IOException("無法讀取目錄: " + manifestOrDirectory);
+            }
+            Arrays.sort(files);
+            for (File file : files) {
+                String name = file.getName();
+                layoutFiles.put(name.substring(0, name.length() - ".json".length()), file.getPath());
             }
-            
-            // 簡單解析
-            String content = jsonContent.toString();
-            // 移除開頭的 [ 和結尾的 ]
-            content = content.substring(1, content.length() - 1);
-            
-            // 依據 },{ 分割成座位資料
-            String[] seatJsons = content.split("\\},\\{");
-            
-            for (int i = 0; i < seatJsons.length; i++) {
-                String seatJson = seatJsons[i];
-                // 處理第一個和最後一個特殊情況
-                if (i == 0) {
-                    seatJson = seatJson + "}";
-                } else if (i == seatJsons.length - 1) {
-                    seatJson = "{" + seatJson;
-                } else {
-                    seatJson = "{" + seatJson + "}";
+            return layoutFiles;
+        }
+
+        File baseDir = source.getAbsoluteFile().getParentFile();
+        try (JsonReader reader = open(manifestOrDirectory)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String type = null;
+                String layout = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "type":
+                            type = reader.nextString();
+                            break;
+                        case "layout":
+                            layout = reader.nextString();
+                            break;
+                        default:
+                            reader.skipValue();
+                            break;
+                    }
                 }
-                
-                Map<String, Object> seat = new HashMap<>();
-                seat.put("row", extractJsonValue(seatJson, "row"));
-                seat.put("seatNum", Integer.parseInt(extractJsonValue(seatJson, "seatNum")));
-                
-                if (hasRegions) {
-                    seat.put("region", extractJsonValue(seatJson, "region"));
-                } else {
-                    seat.put("region", "standard"); // 小廳沒有區域區分，使用標準區域
+                reader.endObject();
+                if (type == null || type.isEmpty() || layout == null || layout.isEmpty()) {
+                    throw new IOException("影廳清單缺少 type 或 layout 欄位: " + manifestOrDirectory);
                 }
-                
-                seats.add(seat);
+                File layoutFile = new File(layout);
+                if (!layoutFile.isAbsolute()) {
+                    layoutFile = new File(baseDir, layout);
+                }
+                layoutFiles.put(type, layoutFile.getPath());
             }
-        } catch (IOException e) {
-            System.err.println("Error loading seats from JSON: " + e.getMessage());
-            e.printStackTrace();
+            reader.endArray();
         }
-        
-        return seats;
+        return layoutFiles;
     }
 
     /**
-     * 從JSON字串中提取值
-     * @param json JSON字串
-     * @param key 鍵值
-     * @return 對應的值
+     * 從JSON檔案載入座位配置，沒有區域資訊的座位歸為標準區域
+     * 座位直接寫入配置的緊湊陣列，不建立中間的座位列表
+     * @param name 配置名稱
+     * @param filePath 檔案路徑
+     * @return 座位配置
      */
-    private static String extractJsonValue(String json, String key) {
-        String searchKey = "\"" + key + "\"";
-        int keyIndex = json.indexOf(searchKey);
-        if (keyIndex == -1) return "";
-        
-        int colonIndex = json.indexOf(":", keyIndex);
-        if (colonIndex == -1) return "";
-        
-        int valueStart = json.indexOf("\"", colonIndex);
-        if (valueStart == -1) { 
-            // 可能是數值
-            int commaIndex = json.indexOf(",", colonIndex);
-            int closeBracketIndex = json.indexOf("}", colonIndex);
-            int endIndex = (commaIndex != -1 && commaIndex < closeBracketIndex) ? commaIndex : closeBracketIndex;
-            return json.substring(colonIndex + 1, endIndex).trim();
+    public static SeatLayout loadSeatLayout(String name, String filePath) {
+        SeatLayout.Builder builder = new SeatLayout.Builder(name);
+        try {
+            forEachSeat(filePath, builder::addSeat);
+        } catch (IOException e) {
+            System.err.println("Error loading seats from JSON: " + e.getMessage());
+            e.printStackTrace();
         }
-        
-        valueStart++; // 跳過引號
-        int valueEnd = json.indexOf("\"", valueStart);
-        if (valueEnd == -1) return "";
-        
-        return json.substring(valueStart, valueEnd);
+        return builder.build();
     }
 
     /**
-     * 取得每個影廳的總座位數
-     * @param theatersData 影廳座位資料
-     * @return 映射包含每個影廳的總座位數
+     * 串流讀取座位檔，每解析完一個座位就交給 handler
+     * 沒有 region 欄位或其值為 null 的座位以 null 傳入
      */
-    public static Map<String, Integer> getTheaterSeatCounts(Map<String, List<Map<String, Object>>> theatersData) {
-        Map<String, Integer> seatCounts = new HashMap<>();
-        
-        for (Map.Entry<String, List<Map<String, Object>>> entry : theatersData.entrySet()) {
-            seatCounts.put(entry.getKey(), entry.getValue().size());
+    public static void forEachSeat(String filePath, SeatHandler handler) throws IOException {
+        try (JsonReader reader = open(filePath)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String row = null;
+                int seatNum = 0;
+                String region = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (reader.peek() == JsonReader.Token.NULL) {
+                        reader.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "row":
+                            row = reader.nextString();
+                            break;
+                        case "seatNum":
+                            seatNum = reader.nextInt();
+                            break;
+                        case "region":
+                            region = reader.nextString();
+                            break;
+                        default:
+                            reader.skipValue();
+                            break;
+                    }
+                }
+                reader.endObject();
+                handler.seat(row, seatNum, region);
+            }
+            reader.endArray();
         }
-        
-        return seatCounts;
     }
-}
\ No newline at end of file
+
+    private static JsonReader open(String filePath) throws IOException {
+        return new JsonReader(new InputStreamReader(
+                new BufferedInputStream(new FileInputStream(filePath)), StandardCharsets.UTF_8));
+    }
+}
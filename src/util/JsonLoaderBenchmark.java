@@ -0,0 +1,166 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 比較串流解析與舊版 split 解析座位檔的速度與配置量
+ * 產生一個約 10 萬座位的合成配置檔（100 排 x 1000 號），各執行數次後輸出平均時間與每次解析配置的位元組數
+ *
+ * 執行方式：java -cp <編譯輸出目錄> util.JsonLoaderBenchmark [座位排數] [每排座位數] [重複次數]
+ */
+public class JsonLoaderBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int seatsPerRow = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        File file = File.createTempFile("seat-layout-bench", ".json");
+        file.deleteOnExit();
+        writeSyntheticLayout(file, rows, seatsPerRow);
+        System.out.printf("合成座位檔: %s (%d 座位, %.1f KB)%n", file.getPath(), rows * seatsPerRow, file.length() / 1024.0);
+
+        String path = file.getPath();
+        // 暖機，讓 JIT 編譯兩種解析路徑
+        for (int i = 0; i < 2; i++) {
+            legacySplitParse(path);
+            JsonDataLoader.loadSeatLayout("bench", path);
+        }
+
+        report("split 解析 (舊版)", iterations, () -> legacySplitParse(path).size());
+        report("串流解析 (逐筆回調)", iterations, () -> {
+            int[] count = new int[1];
+            JsonDataLoader.forEachSeat(path, (row, seatNum, region) -> count[0]++);
+            return count[0];
+        });
+        report("串流解析 -> SeatLayout", iterations, () -> JsonDataLoader.loadSeatLayout("bench", path).size());
+    }
+
+    private interface Parse {
+        int run() throws IOException;
+    }
+
+    private static void report(String label, int iterations, Parse parse) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long totalNanos = 0;
+        long totalBytes = 0;
+        int seats = 0;
+        for (int i = 0; i < iterations; i++) {
+            long bytesBefore = allocatedBytes(threads);
+            long start = System.nanoTime();
+            seats = parse.run();
+            totalNanos += System.nanoTime() - start;
+            totalBytes += allocatedBytes(threads) - bytesBefore;
+        }
+        System.out.printf("%-24s %8.1f ms/次  %10.1f MB 配置/次  (%d 座位)%n",
+                label, totalNanos / 1e6 / iterations, totalBytes / 1048576.0 / iterations, seats);
+    }
+
+    /**
+     * 目前執行緒累計配置的位元組數，JVM 不支援時返回 0
+     */
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static void writeSyntheticLayout(File file, int rows, int seatsPerRow) throws IOException {
+        String[] regions = {"gray", "blue", "yellow", "red"};
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("[\n");
+            for (int r = 0; r < rows; r++) {
+                String row = rowName(r);
+                for (int n = 1; n <= seatsPerRow; n++) {
+                    if (r > 0 || n > 1) {
+                        writer.write(",\n");
+                    }
+                    // seatNum 放在最後：舊版解析遇到數值欄位後面還有字串欄位時會取錯值（big_room.json 即是如此）
+                    writer.write("\t{\n\t\t\"row\": \"" + row + "\",\n\t\t\"region\": \""
+                            + regions[(r + n) % regions.length] + "\",\n\t\t\"seatNum\": " + n + "\n\t}");
+                }
+            }
+            writer.write("\n]\n");
+        }
+    }
+
+    // A..Z, AA..AZ, BA..
+    private static String rowName(int index) {
+        StringBuilder name = new StringBuilder();
+        index++;
+        while (index > 0) {
+            index--;
+            name.insert(0, (char) ('A' + index % 26));
+            index /= 26;
+        }
+        return name.toString();
+    }
+
+    /**
+     * 舊版 JsonDataLoader 的解析方式：整檔讀入後以 },{ 分割並以子字串搜尋欄位，僅供比較
+     */
+    private static List<Map<String, Object>> legacySplitParse(String filePath) throws IOException {
+        List<Map<String, Object>> seats = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            StringBuilder jsonContent = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                jsonContent.append(line.trim());
+            }
+            String content = jsonContent.toString();
+            content = content.substring(1, content.length() - 1);
+            String[] seatJsons = content.split("\\},\\{");
+            for (int i = 0; i < seatJsons.length; i++) {
+                String seatJson = seatJsons[i];
+                if (i == 0) {
+                    seatJson = seatJson + "}";
+                } else if (i == seatJsons.length - 1) {
+                    seatJson = "{" + seatJson;
+                } else {
+                    seatJson = "{" + seatJson + "}";
+                }
+                Map<String, Object> seat = new HashMap<>();
+                seat.put("row", extractJsonValue(seatJson, "row"));
+                seat.put("seatNum", Integer.parseInt(extractJsonValue(seatJson, "seatNum")));
+                seat.put("region", extractJsonValue(seatJson, "region"));
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    private static String extractJsonValue(String json, String key) {
+        String searchKey = "\"" + key + "\"";
+        int keyIndex = json.indexOf(searchKey);
+        if (keyIndex == -1) return "";
+
+        int colonIndex = json.indexOf(":", keyIndex);
+        if (colonIndex == -1) return "";
+
+        int valueStart = json.indexOf("\"", colonIndex);
+        if (valueStart == -1) {
+            int commaIndex = json.indexOf(",", colonIndex);
+            int closeBracketIndex = json.indexOf("}", colonIndex);
+            int endIndex = (commaIndex != -1 && commaIndex < closeBracketIndex) ? commaIndex : closeBracketIndex;
+            return json.substring(colonIndex + 1, endIndex).trim();
+        }
+
+        valueStart++;
+        int valueEnd = json.indexOf("\"", valueStart);
+        if (valueEnd == -1) return "";
+
+        return json.substring(valueStart, valueEnd);
+    }
+}
@@ -0,0 +1,80 @@
+package util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SQLite PRAGMA 設定組合，套用於連線池建立的每一條實體連線
+ * 兩種組合皆啟用 WAL，讓讀取場次時不會阻擋訂票寫入
+ */
+public enum PragmaProfile {
+    /** 高吞吐量：WAL + synchronous=NORMAL，較大的快取與記憶體映射 */
+    THROUGHPUT(new String[][]{
+            {"journal_mode", "WAL"},
+            {"synchronous", "NORMAL"},
+            {"cache_size", "-20000"},
+            {"mmap_size", "268435456"},
+            {"temp_store", "MEMORY"},
+            {"busy_timeout", "5000"}
+    }),
+    /** 高耐久性：WAL + synchronous=FULL，每次提交都同步寫入磁碟 */
+    DURABLE(new String[][]{
+            {"journal_mode", "WAL"},
+            {"synchronous", "FULL"},
+            {"cache_size", "-8000"},
+            {"mmap_size", "0"},
+            {"temp_store", "DEFAULT"},
+            {"busy_timeout", "10000"}
+    });
+
+    // 個別 PRAGMA 可用 -Dcinema.db.pragma.<名稱>=<值> 覆寫
+    private static final String OVERRIDE_PREFIX = "cinema.db.pragma.";
+
+    private final Map<String, String> pragmas = new LinkedHashMap<>();
+
+    PragmaProfile(String[][] settings) {
+        for (String[] setting : settings) {
+            pragmas.put(setting[0], setting[1]);
+        }
+    }
+
+    /**
+     * 依名稱取得設定組合，名稱無效時使用 THROUGHPUT
+     */
+    public static PragmaProfile fromName(String name) {
+        if (name != null) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("未知的 PRAGMA 設定組合: " + name + "，改用 THROUGHPUT");
+            }
+        }
+        return THROUGHPUT;
+    }
+
+    /**
+     * 取得實際套用的 PRAGMA（已合併系統屬性覆寫）
+     */
+    public Map<String, String> getPragmas() {
+        Map<String, String> effective = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : pragmas.entrySet()) {
+            effective.put(entry.getKey(), System.getProperty(OVERRIDE_PREFIX + entry.getKey(), entry.getValue()));
+        }
+        return effective;
+    }
+
+    /**
+     * 在指定連線上套用所有 PRAGMA
+     */
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, String> entry : getPragmas().entrySet()) {
+                stmt.execute("PRAGMA " + entry.getKey() + " = " + entry.getValue());
+            }
+        }
+    }
+}
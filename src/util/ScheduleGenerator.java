@@ -0,0 +1,70 @@
+package util;
+
+import model.Movie;
+import model.Theater;
+import service.MovieService;
+import service.ShowtimeService;
+import service.TheaterService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以 ShowtimeService.generateSchedule 批次產生一段期間的排程並寫入資料庫，輸出建立與略過的場次數及寫入速度
+ * 未指定電影或影廳時使用資料庫中的全部電影 / 影廳
+ *
+ * 執行方式：java -cp <編譯輸出目錄> util.ScheduleGenerator 開始日期 結束日期 [時段，預設 10:00,13:30,17:00,20:30]
+ *          [清潔時間分鐘，預設 20] [電影ID，以逗號分隔] [影廳ID，以逗號分隔]
+ * 例如：java -cp out util.ScheduleGenerator 2025-07-01 2025-07-07 10:00,14:00,19:00 15
+ */
+public class ScheduleGenerator {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("用法: util.ScheduleGenerator 開始日期 結束日期 [時段] [清潔時間分鐘] [電影ID] [影廳ID]");
+            System.exit(1);
+        }
+        LocalDate fromDate = LocalDate.parse(args[0]);
+        LocalDate toDate = LocalDate.parse(args[1]);
+        List<LocalTime> slots = new ArrayList<>();
+        for (String slot : (args.length > 2 ? args[2] : "10:00,13:30,17:00,20:30").split(",")) {
+            slots.add(LocalTime.parse(slot.trim()));
+        }
+        int cleaningBufferMinutes = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        // 排程寫入 epoch 欄位，需先套用結構遷移
+        DBUtil.migrateSchema();
+        List<Integer> movieUids = new ArrayList<>();
+        if (args.length > 4) {
+            movieUids.addAll(parseIds(args[4]));
+        } else {
+            for (Movie movie : new MovieService().getAllMovies()) {
+                movieUids.add(movie.getUid());
+            }
+        }
+        List<Integer> theaterUids = new ArrayList<>();
+        if (args.length > 5) {
+            theaterUids.addAll(parseIds(args[5]));
+        } else {
+            for (Theater theater : new TheaterService().listTheaters()) {
+                theaterUids.add(theater.getUid());
+            }
+        }
+
+        System.out.printf("排程 %s ~ %s，%d 部電影、%d 個影廳、每天 %d 個時段，清潔時間 %d 分鐘%n",
+                fromDate, toDate, movieUids.size(), theaterUids.size(), slots.size(), cleaningBufferMinutes);
+        ShowtimeService.ScheduleResult result = new ShowtimeService()
+                .generateSchedule(movieUids, theaterUids, fromDate, toDate, slots, cleaningBufferMinutes);
+        System.out.println(result);
+    }
+
+    private static List<Integer> parseIds(String csv) {
+        List<Integer> ids = new ArrayList<>();
+        for (String id : csv.split(",")) {
+            ids.add(Integer.parseInt(id.trim()));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,169 @@
+package util;
+
+import dao.ReservationDAO;
+import dao.ReviewDAO;
+import dao.ShowtimeDAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以 PRAGMA user_version 記錄版本的資料庫結構遷移
+ * 每個遷移只會執行一次，新增遷移時請附加在 MIGRATIONS 尾端並遞增版本號
+ */
+public class SchemaMigrator {
+
+    private static final Migration[] MIGRATIONS = {
+        new Migration(1, "訂票與場次熱門查詢的索引",
+            "CREATE INDEX IF NOT EXISTS idx_reservation_showtime_seat ON reservation(theater_uid, seat_no, status)",
+            "CREATE INDEX IF NOT EXISTS idx_reservation_showtime_status ON reservation(theater_uid, status, seat_no)",
+            "CREATE INDEX IF NOT EXISTS idx_reservation_member ON reservation(member_uid, status)",
+            "CREATE INDEX IF NOT EXISTS idx_reservation_time ON reservation(time)",
+            "CREATE INDEX IF NOT EXISTS idx_showtime_movie ON showtime(movie_uid, start_time)",
+            "CREATE INDEX IF NOT EXISTS idx_showtime_theater ON showtime(theater_uid, start_time, end_time)"
+        ),
+        new Migration(2, "場次與訂票時間的 epoch 整數欄位及範圍索引",
+            "ALTER TABLE showtime ADD COLUMN start_epoch INTEGER",
+            "ALTER TABLE showtime ADD COLUMN end_epoch INTEGER",
+            "ALTER TABLE reservation ADD COLUMN time_epoch INTEGER",
+            // strftime('%s') 將文字時間視為 UTC，與 TimeUtil 的換算方式一致
+            "UPDATE showtime SET start_epoch = CAST(strftime('%s', start_time) AS INTEGER), end_epoch = CAST(strftime('%s', end_time) AS INTEGER)",
+            "UPDATE reservation SET time_epoch = CAST(strftime('%s', time) AS INTEGER)",
+            "CREATE INDEX IF NOT EXISTS idx_showtime_theater_epoch ON showtime(theater_uid, start_epoch, end_epoch)",
+            "CREATE INDEX IF NOT EXISTS idx_showtime_start_epoch ON showtime(start_epoch)",
+            "CREATE INDEX IF NOT EXISTS idx_reservation_time_epoch ON reservation(time_epoch)"
+        ),
+        new Migration(3, "訂單與評論分頁查詢的游標索引",
+            // reviews 表原本在首次讀寫時才建立，先確保存在以便建立索引
+            "CREATE TABLE IF NOT EXISTS reviews (id INTEGER PRIMARY KEY AUTOINCREMENT, movie_id INTEGER NOT NULL, " +
+                "user_email TEXT NOT NULL, review_text TEXT NOT NULL, FOREIGN KEY(movie_id) REFERENCES movie(uid))",
+            "CREATE INDEX IF NOT EXISTS idx_reviews_movie_id ON reviews(movie_id, id)",
+            "CREATE INDEX IF NOT EXISTS idx_reservation_status_time_epoch ON reservation(status, time_epoch)"
+        ),
+        new Migration(4, "增量匯入的來源檔與資料指紋",
+            "CREATE TABLE IF NOT EXISTS import_fingerprint (source TEXT NOT NULL, record_key TEXT NOT NULL, " +
+                "hash TEXT NOT NULL, PRIMARY KEY (source, record_key)) WITHOUT ROWID"
+        ),
+        new Migration(5, "移除重複的訂票索引",
+            // (theater_uid, status, seat_no) 已涵蓋相同的等值查詢
+            "DROP INDEX IF EXISTS idx_reservation_showtime_seat",
+            // 查詢與排序都已改用 time_epoch
+            "DROP INDEX IF EXISTS idx_reservation_time"
+        ),
+        new Migration(6, "依狀態分頁的訂單列表改用 (status, time_epoch, uid) 游標索引",
+            "CREATE INDEX IF NOT EXISTS idx_reservation_status_time_epoch_uid ON reservation(status, time_epoch, uid)",
+            // 新索引的前綴已涵蓋
+            "DROP INDEX IF EXISTS idx_reservation_status_time_epoch"
+        )
+    };
+
+    /**
+     * 熱門查詢與範例參數，用於 EXPLAIN QUERY PLAN 檢查
+     * 每個查詢都應以索引定位（SEARCH），包括沿索引順序掃描在內的任何 SCAN 都視為退化
+     */
+    private static final Object[][] HOT_QUERIES = {
+        {ReservationDAO.SELECT_BY_SHOWTIME_SQL, 1},
+        {ReservationDAO.SELECT_CONFIRMED_BY_SHOWTIME_SQL, 1},
+        {ReservationDAO.SELECT_BOOKED_SEAT_NOS_SQL, 1},
+        {ReservationDAO.countBookedSeatsSql(2), 1, 2},
+        {ReservationDAO.SELECT_CONFIRMED_BY_SHOWTIME_AND_SEAT_SQL, 1, "A-1"},
+        {ReservationDAO.SELECT_CANCELLED_BY_SHOWTIME_AND_SEAT_SQL, "A-1", 1},
+        {ReservationDAO.SELECT_ACTIVE_BY_MEMBER_SQL, 1},
+        {ShowtimeDAO.SELECT_BY_MOVIE_SQL, 1},
+        {ShowtimeDAO.SELECT_BY_THEATER_SQL, 1},
+        {ShowtimeDAO.COUNT_RUNNING_IN_THEATER_SQL, 1, 0L, 0L},
+        {ReservationDAO.reservationViewsPageSql(false, false, true), 0L, 0, 50},
+        {ReservationDAO.reservationViewsPageSql(true, false, true), "CONFIRMED", 0L, 0, 50},
+        {ReviewDAO.SELECT_PAGE_BY_MOVIE_SQL, 1, 0, 50}
+    };
+
+    /**
+     * 套用所有尚未執行的遷移
+     * @return 遷移後的結構版本
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        int version = getVersion(conn);
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version <= version) {
+                continue;
+            }
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + migration.version);
+                conn.commit();
+                version = migration.version;
+                System.out.println("Schema migrated to v" + version + ": " + migration.description);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Schema migration v" + migration.version + " failed: " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return version;
+    }
+
+    public static int getVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * 將結構版本歸零，清空資料表後需呼叫以便重新套用遷移
+     */
+    public static void resetVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = 0");
+        }
+    }
+
+    /**
+     * 以 EXPLAIN QUERY PLAN 檢查熱門查詢，找出未以索引定位而需逐列掃描的查詢
+     * "SCAN ... USING INDEX" 只是依索引順序讀過整張表，同樣視為退化
+     * @return 需掃描的查詢與其執行計畫，若全部以索引定位則為空列表
+     */
+    public static List<String> findScans(Connection conn) throws SQLException {
+        List<String> offenders = new ArrayList<>();
+        for (Object[] query : HOT_QUERIES) {
+            String sql = (String) query[0];
+            try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                for (int i = 1; i < query.length; i++) {
+                    stmt.setObject(i, query[i]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String detail = rs.getString("detail");
+                        // 新舊版 SQLite 分別輸出 "SCAN reservation" 與 "SCAN TABLE reservation"
+                        if (detail != null && detail.startsWith("SCAN")) {
+                            offenders.add(sql + " -> " + detail);
+                        }
+                    }
+                }
+            }
+        }
+        return offenders;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
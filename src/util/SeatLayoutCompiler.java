@@ -0,0 +1,45 @@
+package util;
+
+import model.SeatLayout;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 將影廳清單（或座位檔目錄）中的座位 JSON 轉換為 .seatlayout 編譯檔，並比較兩種格式的載入時間與檔案大小
+ * 啟動時 SeatLayoutFile.load 也會自動產生缺少或過期的編譯檔，部署到唯讀目錄前可先以此工具產生
+ *
+ * 執行方式：java -cp <編譯輸出目錄> util.SeatLayoutCompiler [清單檔或目錄，預設 data/theaters.json]
+ */
+public class SeatLayoutCompiler {
+
+    public static void main(String[] args) throws IOException {
+        String source = args.length > 0 ? args[0] : "data/theaters.json";
+        Map<String, String> layoutFiles = JsonDataLoader.loadTheaterLayoutFiles(source);
+        for (Map.Entry<String, String> entry : layoutFiles.entrySet()) {
+            String type = entry.getKey();
+            File json = new File(entry.getValue());
+            File compiled = new File(SeatLayoutFile.compiledPathFor(entry.getValue()));
+
+            long start = System.nanoTime();
+            SeatLayout.Builder builder = new SeatLayout.Builder(type);
+            JsonDataLoader.forEachSeat(json.getPath(), builder::addSeat);
+            SeatLayout parsed = builder.build();
+            long parseNanos = System.nanoTime() - start;
+
+            SeatLayoutFile.write(parsed, json, compiled);
+
+            start = System.nanoTime();
+            SeatLayout mapped = SeatLayoutFile.read(type, compiled, json);
+            long mapNanos = System.nanoTime() - start;
+            if (mapped == null || mapped.size() != parsed.size()) {
+                throw new IOException("編譯檔驗證失敗: " + compiled.getPath());
+            }
+
+            System.out.printf("%s: %d 座位  JSON %.1f KB / %.2f ms  ->  %s %.1f KB / %.2f ms%n",
+                    type, parsed.size(), json.length() / 1024.0, parseNanos / 1e6,
+                    compiled.getPath(), compiled.length() / 1024.0, mapNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package util;
+
+import model.SeatLayout;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 編譯後的二進位座位配置檔（.seatlayout）
+ * 由座位 JSON 轉換而來，與 SeatLayout 相同以緊湊陣列保存排、號碼與區域，載入時以記憶體映射讀取，不需解析 JSON
+ *
+ * 檔案格式（big-endian）：
+ * <pre>
+ * int    magic "SLAY"
+ * short  版本
+ * long   來源 JSON 的檔案大小
+ * long   來源 JSON 的最後修改時間，兩者與來源不符時視為過期
+ * short  排數，接著每排 short 長度 + UTF-8 名稱
+ * short  區域數，接著每個區域 short 長度 + UTF-8 名稱
+ * int    座位數 n
+ * byte[n] 排索引, short[n] 號碼, byte[n] 區域索引（排數與區域數上限見 SeatLayout.MAX_ROWS / MAX_REGIONS）
+ * </pre>
+ */
+public class SeatLayoutFile {
+    public static final String EXTENSION = ".seatlayout";
+
+    private static final int MAGIC = 0x534C4159; // "SLAY"
+    private static final short VERSION = 1;
+
+    /**
+     * 座位 JSON 對應的編譯檔路徑，例如 data/big_room.json → data/big_room.seatlayout
+     */
+    public static String compiledPathFor(String jsonPath) {
+        String base = jsonPath.endsWith(".json") ? jsonPath.substring(0, jsonPath.length() - ".json".length()) : jsonPath;
+        return base + EXTENSION;
+    }
+
+    /**
+     * 載入座位配置：編譯檔存在且與來源 JSON 相符時以記憶體映射讀取，否則解析 JSON 並重新產生編譯檔
+     * 編譯檔無法寫入（例如唯讀目錄）時只印出警告，仍返回解析結果
+     * @param name 配置名稱
+     * @param jsonPath 來源座位 JSON 路徑
+     */
+    public static SeatLayout load(String name, String jsonPath) throws IOException {
+        File source = new File(jsonPath);
+        File compiled = new File(compiledPathFor(jsonPath));
+        if (compiled.isFile()) {
+            try {
+                SeatLayout layout = read(name, compiled, source);
+                if (layout != null) {
+                    return layout;
+                }
+            } catch (IOException e) {
+                System.err.println("略過無法讀取的座位配置檔 " + compiled.getPath() + ": " + e.getMessage());
+            }
+        }
+
+        SeatLayout.Builder builder = new SeatLayout.Builder(name);
+        JsonDataLoader.forEachSeat(jsonPath, builder::addSeat);
+        SeatLayout layout = builder.build();
+        if (layout.size() > 0) {
+            try {
+                write(layout, source, compiled);
+            } catch (IOException e) {
+                System.err.println("無法寫入座位配置檔 " + compiled.getPath() + ": " + e.getMessage());
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * 將座位配置寫成編譯檔；先寫入暫存檔再替換，讀取端不會看到寫到一半的檔案
+     * @param source 來源 JSON，其大小與修改時間寫入檔頭供過期判斷
+     */
+    public static void write(SeatLayout layout, File source, File target) throws IOException {
+        String[] rows = new String[layout.getRowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = layout.getRow(i);
+        }
+        // SeatLayout 不公開區域表，依座位出現順序重建
+        Map<String, Integer> regionIndex = new HashMap<>();
+        byte[] seatRegion = new byte[layout.size()];
+        for (int i = 0; i < layout.size(); i++) {
+            Integer index = regionIndex.get(layout.regionAt(i));
+            if (index == null) {
+                index = regionIndex.size();
+                regionIndex.put(layout.regionAt(i), index);
+            }
+            seatRegion[i] = (byte) (int) index;
+        }
+        String[] regions = new String[regionIndex.size()];
+        for (Map.Entry<String, Integer> entry : regionIndex.entrySet()) {
+            regions[entry.getValue()] = entry.getKey();
+        }
+
+        File parent = target.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(target.getName(), ".tmp", parent);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeLong(source.length());
+                out.writeLong(source.lastModified());
+                writeStrings(out, rows);
+                writeStrings(out, regions);
+                out.writeInt(layout.size());
+                for (int i = 0; i < layout.size(); i++) {
+                    out.writeByte(layout.rowIndexAt(i));
+                }
+                for (int i = 0; i < layout.size(); i++) {
+                    out.writeShort(layout.seatNumberAt(i));
+                }
+                out.write(seatRegion);
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * 以記憶體映射讀取編譯檔
+     * @param source 來源 JSON，為 null 時不檢查是否過期
+     * @return 座位配置；編譯檔與來源 JSON 不符時返回 null
+     */
+    public static SeatLayout read(String name, File compiled, File source) throws IOException {
+        try (FileChannel channel = FileChannel.open(compiled.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("座位配置檔格式錯誤: 檔頭不符");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("座位配置檔格式錯誤: 不支援的版本 " + version);
+            }
+            long sourceLength = buffer.getLong();
+            long sourceLastModified = buffer.getLong();
+            if (source != null && (source.length() != sourceLength || source.lastModified() != sourceLastModified)) {
+                return null;
+            }
+            String[] rows = readStrings(buffer);
+            String[] regions = readStrings(buffer);
+            if (rows.length > SeatLayout.MAX_ROWS || regions.length > SeatLayout.MAX_REGIONS) {
+                throw new IOException("座位配置檔格式錯誤: " + rows.length + " 排, " + regions.length + " 個區域超過上限");
+            }
+            int size = buffer.getInt();
+            if (size < 0 || size > buffer.remaining() / 4) {
+                throw new IOException("座位配置檔格式錯誤: 座位數 " + size);
+            }
+            byte[] seatRow = new byte[size];
+            short[] seatNumber = new short[size];
+            byte[] seatRegion = new byte[size];
+            buffer.get(seatRow);
+            buffer.asShortBuffer().get(seatNumber);
+            buffer.position(buffer.position() + size * 2);
+            buffer.get(seatRegion);
+            for (int i = 0; i < size; i++) {
+                if (seatRow[i] < 0 || seatRow[i] >= rows.length || seatRegion[i] < 0 || seatRegion[i] >= regions.length) {
+                    throw new IOException("座位配置檔格式錯誤: 第 " + i + " 個座位的索引超出範圍");
+                }
+                if (seatNumber[i] < SeatLayout.MIN_SEAT_NUMBER) {
+                    throw new IOException("座位配置檔格式錯誤: 第 " + i + " 個座位的號碼 " + seatNumber[i]);
+                }
+            }
+            return new SeatLayout(name, rows, regions, seatRow, seatNumber, seatRegion);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("座位配置檔格式錯誤: 檔案不完整", e);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeShort(values.length);
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String[] readStrings(MappedByteBuffer buffer) throws IOException {
+        int count = buffer.getShort() & 0xFFFF;
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getShort() & 0xFFFF;
+            if (length > buffer.remaining()) {
+                throw new IOException("座位配置檔格式錯誤: 字串長度 " + length);
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,57 @@
+package util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 場次與訂票時間的格式與 epoch 秒轉換
+ * epoch 欄位以「本地時間視為 UTC」計算，與 SQLite strftime('%s', 文字時間) 的結果一致，
+ * 因此資料庫回填的值與程式寫入的值可以直接比較
+ */
+public class TimeUtil {
+    /** 場次時間格式，例如 2025-06-10 14:00 */
+    public static final DateTimeFormatter SHOWTIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    /** 訂票時間格式，例如 2025-06-10 13:45:12 */
+    public static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private TimeUtil() {
+    }
+
+    public static long toEpoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpoch(long epochSeconds) {
+        return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * 解析場次時間 (yyyy-MM-dd HH:mm) 為 epoch 秒
+     */
+    public static long parseShowtimeEpoch(String time) {
+        return toEpoch(LocalDateTime.parse(time, SHOWTIME_FORMAT));
+    }
+
+    /**
+     * 解析訂票時間 (yyyy-MM-dd HH:mm:ss) 為 epoch 秒
+     */
+    public static long parseTimestampEpoch(String time) {
+        return toEpoch(LocalDateTime.parse(time, TIMESTAMP_FORMAT));
+    }
+
+    public static String formatShowtime(long epochSeconds) {
+        return fromEpoch(epochSeconds).format(SHOWTIME_FORMAT);
+    }
+
+    public static String formatTimestamp(long epochSeconds) {
+        return fromEpoch(epochSeconds).format(TIMESTAMP_FORMAT);
+    }
+
+    /**
+     * 目前時間的 epoch 秒
+     */
+    public static long nowEpoch() {
+        return toEpoch(LocalDateTime.now());
+    }
+}